@@ -66,13 +66,65 @@ CREATE TABLE user_roles (
 CREATE TABLE refresh_tokens (
                                 id INT PRIMARY KEY AUTO_INCREMENT,
                                 user_id INT NOT NULL,
-                                token VARCHAR(255) NOT NULL UNIQUE,
+                                token_hash BINARY(32) NOT NULL UNIQUE,
+                                family_id BINARY(16) NOT NULL,
                                 expiry_date TIMESTAMP NOT NULL,
+                                rotated_at TIMESTAMP NULL,
                                 created_datetime DATETIME DEFAULT CURRENT_TIMESTAMP,
                                 created_user INT,
                                 last_updated_datetime DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
                                 last_updated_user INT,
-                                FOREIGN KEY (user_id) REFERENCES users(id)
+                                FOREIGN KEY (user_id) REFERENCES users(id),
+                                INDEX idx_refresh_tokens_expiry_date (expiry_date),
+                                INDEX idx_refresh_tokens_family_id (family_id)
+);
+-- Para bases existentes los tokens anteriores no pueden migrarse (solo se guarda el digest):
+-- TRUNCATE TABLE refresh_tokens;
+-- ALTER TABLE refresh_tokens DROP COLUMN token,
+--     ADD COLUMN token_hash BINARY(32) NOT NULL UNIQUE AFTER user_id,
+--     ADD COLUMN family_id BINARY(16) NOT NULL AFTER token_hash,
+--     ADD COLUMN rotated_at TIMESTAMP NULL AFTER expiry_date,
+--     ADD INDEX idx_refresh_tokens_family_id (family_id);
+
+-- Bandeja de salida de emails: se escribe en la misma transacción que el cambio
+-- que origina el email y un proceso en segundo plano la envía por SMTP
+CREATE TABLE email_outbox (
+                              id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                              recipient VARCHAR(255) NOT NULL,
+                              subject VARCHAR(255) NOT NULL,
+                              body LONGTEXT NULL, -- Se borra al enviar o descartar el email
+                              status VARCHAR(10) NOT NULL,
+                              attempts INT NOT NULL DEFAULT 0,
+                              next_attempt_at TIMESTAMP NOT NULL,
+                              last_error VARCHAR(500),
+                              sent_at TIMESTAMP NULL,
+                              created_datetime DATETIME DEFAULT CURRENT_TIMESTAMP,
+                              INDEX idx_email_outbox_status_next_attempt (status, next_attempt_at)
+);
+
+-- Para bases existentes, el contenido de los emails enviados o descartados se borra:
+-- ALTER TABLE email_outbox MODIFY body LONGTEXT NULL;
+-- UPDATE email_outbox SET body = NULL WHERE status IN ('SENT', 'DEAD');
+
+-- La tabla password_reset_tokens la genera Hibernate; para bases existentes, el índice
+-- con el que la limpieza programada elimina los tokens ya utilizados:
+-- CREATE INDEX idx_password_reset_tokens_used ON password_reset_tokens (used);
+
+-- Las tablas de reviews las genera Hibernate; para bases existentes, los índices del
+-- listado paginado por (created_datetime, id) y de las primeras respuestas de cada review:
+-- CREATE INDEX idx_reviews_created_id ON reviews (created_datetime, id);
+-- CREATE INDEX idx_reviews_category_created_id ON reviews (category, created_datetime, id);
+-- CREATE INDEX idx_reviews_responses_review_created_id
+--     ON reviews_responses (review_id, created_datetime, id);
+
+-- Cantidad de reviews por categoría y rating, actualizada al crear y eliminar reviews
+-- y reconciliada periódicamente con la tabla de reviews
+CREATE TABLE review_stats (
+                              id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                              category VARCHAR(20) NOT NULL,
+                              rating INT NOT NULL,
+                              review_count BIGINT NOT NULL,
+                              CONSTRAINT uk_review_stats_category_rating UNIQUE (category, rating)
 );
 
 -- Tabla de Niveles de Membresía
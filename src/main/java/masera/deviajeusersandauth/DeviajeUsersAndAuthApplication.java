@@ -3,13 +3,17 @@ package masera.deviajeusersandauth;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Aplicación principal para el módulo de usuarios y autenticación de Deviaje.
- * Habilita la ejecución asíncrona para mejorar el rendimiento en operaciones que lo requieran.
+ * Habilita la ejecución asíncrona para mejorar el rendimiento en operaciones que lo requieran
+ * (con el executor definido en {@link masera.deviajeusersandauth.configs.AsyncConfig})
+ * y las tareas programadas.
  */
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class DeviajeUsersAndAuthApplication {
 
   /**
@@ -0,0 +1,128 @@
+package masera.deviajeusersandauth.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuración del executor de las tareas asíncronas ({@code @Async}).
+ * El pool tiene un tamaño fijo y una cola acotada. Con hilos virtuales el tamaño del
+ * pool sigue limitando cuántas tareas corren a la vez.
+ * Al cerrar la aplicación se dejan de aceptar tareas y se espera a las encoladas.
+ */
+@Configuration
+public class AsyncConfig implements AsyncConfigurer {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+  /**
+   * Qué hacer con una tarea cuando el pool y su cola están llenos.
+   */
+  public enum RejectionPolicy {
+    /** La tarea corre en el hilo que la envió, que así se frena. */
+    CALLER_RUNS,
+    /** La tarea se descarta y se cuenta en la métrica de rechazos. */
+    DROP
+  }
+
+  private final MeterRegistry meterRegistry;
+
+  private final int poolSize;
+
+  private final int queueCapacity;
+
+  private final boolean virtualThreads;
+
+  private final RejectionPolicy rejectionPolicy;
+
+  private final int shutdownTimeoutSeconds;
+
+  /**
+   * Constructor de la configuración.
+   *
+   * @param meterRegistry registro de métricas.
+   * @param poolSize cantidad de tareas que corren a la vez.
+   * @param queueCapacity cantidad máxima de tareas en espera.
+   * @param virtualThreads true para usar hilos virtuales en lugar de hilos de plataforma.
+   * @param rejectionPolicy política con el pool y la cola llenos.
+   * @param shutdownTimeoutSeconds espera máxima por las tareas pendientes al cerrar.
+   */
+  public AsyncConfig(MeterRegistry meterRegistry,
+                     @Value("${deviaje.app.async.poolSize:4}") int poolSize,
+                     @Value("${deviaje.app.async.queueCapacity:100}") int queueCapacity,
+                     @Value("${deviaje.app.async.virtualThreads:false}") boolean virtualThreads,
+                     @Value("${deviaje.app.async.rejectionPolicy:CALLER_RUNS}")
+                     RejectionPolicy rejectionPolicy,
+                     @Value("${deviaje.app.async.shutdownTimeoutSeconds:30}")
+                     int shutdownTimeoutSeconds) {
+    this.meterRegistry = meterRegistry;
+    this.poolSize = poolSize;
+    this.queueCapacity = queueCapacity;
+    this.virtualThreads = virtualThreads;
+    this.rejectionPolicy = rejectionPolicy;
+    this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+  }
+
+  /**
+   * Executor de las tareas asíncronas. Publica las métricas estándar de executor
+   * con el nombre "async" (activas, en cola, completadas) y los rechazos en
+   * {@code deviaje.async.rejected}.
+   *
+   * @return el executor.
+   */
+  @Override
+  @Bean(name = "asyncExecutor")
+  public ThreadPoolTaskExecutor getAsyncExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+      @Override
+      protected ExecutorService initializeExecutor(ThreadFactory threadFactory,
+                                                   RejectedExecutionHandler handler) {
+        ExecutorService service = super.initializeExecutor(threadFactory, handler);
+        new ExecutorServiceMetrics(getThreadPoolExecutor(), "async", Tags.empty())
+                .bindTo(meterRegistry);
+        return service;
+      }
+    };
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setVirtualThreads(virtualThreads);
+    executor.setThreadNamePrefix("async-");
+    executor.setRejectedExecutionHandler(rejectionHandler());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(shutdownTimeoutSeconds);
+    return executor;
+  }
+
+  private RejectedExecutionHandler rejectionHandler() {
+    Counter rejected = Counter.builder("deviaje.async.rejected")
+            .description("Tareas asíncronas rechazadas por el pool saturado")
+            .tag("policy", rejectionPolicy.name().toLowerCase())
+            .register(meterRegistry);
+
+    return (task, pool) -> {
+      rejected.increment();
+      if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !pool.isShutdown()) {
+        task.run();
+        return;
+      }
+      // Un futuro descartado nunca se completaría: se cancela para no bloquear a quien lo espera
+      if (task instanceof Future<?> future) {
+        future.cancel(false);
+      }
+      logger.warn("Se descartó una tarea asíncrona: el pool y su cola están llenos");
+    };
+  }
+}
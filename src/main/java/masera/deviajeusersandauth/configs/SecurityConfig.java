@@ -1,10 +1,17 @@
 package masera.deviajeusersandauth.configs;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import masera.deviajeusersandauth.security.crypto.BcryptStrengthCalibrator;
+import masera.deviajeusersandauth.security.crypto.BoundedPasswordEncoder;
+import masera.deviajeusersandauth.security.crypto.PasswordHashingExecutor;
 import masera.deviajeusersandauth.security.jwt.AuthEntryPointJwt;
 import masera.deviajeusersandauth.security.jwt.JwtAuthenticationFilter;
+import masera.deviajeusersandauth.security.jwt.JwtTokenCache;
 import masera.deviajeusersandauth.security.jwt.JwtUtils;
-import masera.deviajeusersandauth.security.services.UserDetailsServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,8 +22,12 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -31,9 +42,38 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-  private final UserDetailsServiceImpl userDetailsService;
+  /**
+   * Servicio de usuarios con cache (ver CachingUserDetailsService).
+   */
+  private final UserDetailsService userDetailsService;
   private final AuthEntryPointJwt unauthorizedHandler;
   private final JwtUtils jwtUtils;
+  private final JwtTokenCache jwtTokenCache;
+  private final PasswordHashingExecutor passwordHashingExecutor;
+
+  /**
+   * Algoritmo con el que se generan los hashes nuevos: bcrypt, argon2 o pbkdf2.
+   */
+  @Value("${deviaje.app.password.encoder:bcrypt}")
+  private String passwordEncodingId;
+
+  @Value("${deviaje.app.password.bcrypt.targetMs:200}")
+  private long bcryptTargetMs;
+
+  @Value("${deviaje.app.password.bcrypt.minStrength:10}")
+  private int bcryptMinStrength;
+
+  @Value("${deviaje.app.password.argon2.memoryKb:19456}")
+  private int argon2MemoryKb;
+
+  @Value("${deviaje.app.password.argon2.iterations:2}")
+  private int argon2Iterations;
+
+  @Value("${deviaje.app.password.argon2.parallelism:1}")
+  private int argon2Parallelism;
+
+  @Value("${deviaje.app.password.pbkdf2.iterations:600000}")
+  private int pbkdf2Iterations;
 
   /**
    * Crea una instancia de JwtAuthenticationFilter, el filtro personalizado
@@ -43,7 +83,7 @@ public class SecurityConfig {
    */
   @Bean
   public JwtAuthenticationFilter authenticationJwtTokenFilter() {
-    return new JwtAuthenticationFilter(jwtUtils, userDetailsService);
+    return new JwtAuthenticationFilter(jwtUtils, jwtTokenCache, userDetailsService);
   }
 
   /**
@@ -74,14 +114,31 @@ public class SecurityConfig {
   }
 
   /**
-   * Crea un PasswordEncoder que utiliza BCrypt para codificar contraseñas
-   * y compararlas de forma segura.
+   * Crea un PasswordEncoder que codifica contraseñas con el algoritmo configurado
+   * y compara cualquier hash guardado según su prefijo ({bcrypt}, {argon2}, {pbkdf2}).
+   * El costo de BCrypt se calibra al iniciar según el tiempo objetivo.
+   * Los hashes sin prefijo son BCrypt anteriores a este esquema.
+   * El trabajo de hasheo se ejecuta en el pool dedicado.
    *
-   * @return PasswordEncoder
+   * @return BoundedPasswordEncoder
    */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public BoundedPasswordEncoder passwordEncoder() {
+    int bcryptStrength = BcryptStrengthCalibrator.calibrate(
+            Duration.ofMillis(bcryptTargetMs), bcryptMinStrength);
+
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+    encoders.put("argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism,
+            argon2MemoryKb, argon2Iterations));
+    encoders.put("pbkdf2", new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations,
+            Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+
+    DelegatingPasswordEncoder delegatingEncoder =
+            new DelegatingPasswordEncoder(passwordEncodingId, encoders);
+    delegatingEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+    return new BoundedPasswordEncoder(delegatingEncoder, passwordHashingExecutor);
   }
 
   /**
@@ -1,6 +1,7 @@
 package masera.deviajeusersandauth.controllers;
 
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import masera.deviajeusersandauth.dtos.post.ForgotPasswordRequest;
 import masera.deviajeusersandauth.dtos.post.LoginRequest;
@@ -41,14 +42,17 @@ public class AuthController {
   /**
    * Metodo para autenticar un usuario.
    *
+   * La contraseña se compara en el pool de hasheo y el hilo de la solicitud
+   * queda libre mientras tanto.
+   *
    * @param loginRequest representa la solicitud de inicio de sesión.
    * @return una respuesta con el token JWT.
    */
   @PostMapping("/login")
-  public ResponseEntity<JwtResponse> authenticateUser(
+  public CompletableFuture<ResponseEntity<JwtResponse>> authenticateUser(
           @Valid @RequestBody LoginRequest loginRequest) {
-    JwtResponse response = authService.authenticateUser(loginRequest);
-    return ResponseEntity.ok(response);
+    return authService.authenticateUserAsync(loginRequest)
+            .thenApply(ResponseEntity::ok);
   }
 
   /**
@@ -58,10 +62,10 @@ public class AuthController {
    * @return una respuesta con el mensaje de éxito.
    */
   @PostMapping("/signup")
-  public ResponseEntity<MessageResponse> registerUser(
+  public CompletableFuture<ResponseEntity<MessageResponse>> registerUser(
           @Valid @RequestBody SignupRequest signupRequest) {
-    MessageResponse response = userService.registerUser(signupRequest);
-    return ResponseEntity.ok(response);
+    return userService.registerUserAsync(signupRequest)
+            .thenApply(ResponseEntity::ok);
   }
 
   /**
@@ -98,15 +102,13 @@ public class AuthController {
    * @return una respuesta con el mensaje de éxito.
    */
   @PostMapping("/change-password")
-  public ResponseEntity<MessageResponse> changePassword(
+  public CompletableFuture<ResponseEntity<MessageResponse>> changePassword(
           Authentication authentication,
           @Valid @RequestBody PasswordChangeRequest passwordChangeRequest) {
 
     UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-    MessageResponse response = passwordService
-            .changePassword(userDetails.getId(), passwordChangeRequest);
-
-    return ResponseEntity.ok(response);
+    return passwordService.changePassword(userDetails.getId(), passwordChangeRequest)
+            .thenApply(ResponseEntity::ok);
   }
 
   /**
@@ -129,10 +131,10 @@ public class AuthController {
    * @return una respuesta con el mensaje de éxito.
    */
   @PostMapping("/reset-password")
-  public ResponseEntity<MessageResponse> resetPassword(
+  public CompletableFuture<ResponseEntity<MessageResponse>> resetPassword(
           @Valid @RequestBody ResetPasswordRequest resetPasswordRequest) {
-    MessageResponse response = passwordService.resetPassword(resetPasswordRequest);
-    return ResponseEntity.ok(response);
+    return passwordService.resetPassword(resetPasswordRequest)
+            .thenApply(ResponseEntity::ok);
   }
 }
 
@@ -7,12 +7,17 @@ import java.util.Map;
 import lombok.Data;
 import masera.deviajeusersandauth.dtos.common.ErrorApi;
 import masera.deviajeusersandauth.exceptions.EmailAlreadyExistsException;
+import masera.deviajeusersandauth.exceptions.InvalidCursorException;
+import masera.deviajeusersandauth.exceptions.InvalidReviewCategoryException;
 import masera.deviajeusersandauth.exceptions.InvalidResetTokenException;
 import masera.deviajeusersandauth.exceptions.PassportAlreadyExistsException;
 import masera.deviajeusersandauth.exceptions.PasswordMismatchException;
 import masera.deviajeusersandauth.exceptions.ResourceNotFoundException;
+import masera.deviajeusersandauth.exceptions.ServiceOverloadedException;
+import masera.deviajeusersandauth.exceptions.TokenRefreshConflictException;
 import masera.deviajeusersandauth.exceptions.TokenRefreshException;
 import masera.deviajeusersandauth.exceptions.UsernameAlreadyExistsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -21,6 +26,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -77,6 +83,16 @@ public class ControllerException {
     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
   }
 
+  /**
+   * Manejador para TokenRefreshConflictException (409).
+   */
+  @ExceptionHandler(TokenRefreshConflictException.class)
+  public ResponseEntity<ErrorApi> handleTokenRefreshConflictException(
+          TokenRefreshConflictException e) {
+    ErrorApi error = buildError(e.getMessage(), HttpStatus.CONFLICT);
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
   /**
    * Manejador para PasswordMismatchException (400).
    */
@@ -95,6 +111,25 @@ public class ControllerException {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
   }
 
+  /**
+   * Manejador para InvalidCursorException (400).
+   */
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<ErrorApi> handleInvalidCursorException(InvalidCursorException e) {
+    ErrorApi error = buildError(e.getMessage(), HttpStatus.BAD_REQUEST);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
+  /**
+   * Manejador para InvalidReviewCategoryException (400).
+   */
+  @ExceptionHandler(InvalidReviewCategoryException.class)
+  public ResponseEntity<ErrorApi> handleInvalidReviewCategoryException(
+          InvalidReviewCategoryException e) {
+    ErrorApi error = buildError(e.getMessage(), HttpStatus.BAD_REQUEST);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
   /**
    * Manejador para BadCredentialsException (401).
    */
@@ -113,6 +148,17 @@ public class ControllerException {
     return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
   }
 
+  /**
+   * Manejador para ServiceOverloadedException (503).
+   */
+  @ExceptionHandler(ServiceOverloadedException.class)
+  public ResponseEntity<ErrorApi> handleServiceOverloadedException(ServiceOverloadedException e) {
+    ErrorApi error = buildError(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(error);
+  }
+
   /**
    * Manejador para errores de validación (400).
    */
@@ -135,6 +181,17 @@ public class ControllerException {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
   }
 
+  /**
+   * Manejador para parámetros con formato inválido, como un cursor mal formado (400).
+   */
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  public ResponseEntity<ErrorApi> handleArgumentTypeMismatchException(
+          MethodArgumentTypeMismatchException e) {
+    ErrorApi error = buildError("Valor inválido para el parámetro " + e.getName(),
+            HttpStatus.BAD_REQUEST);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
   /**
    * Manejador para excepciones HTTP específicas.
    */
@@ -2,15 +2,22 @@ package masera.deviajeusersandauth.controllers;
 
 import jakarta.validation.Valid;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
 import masera.deviajeusersandauth.dtos.responses.MessageResponse;
 import masera.deviajeusersandauth.dtos.reviews.ReviewCreateRequest;
 import masera.deviajeusersandauth.dtos.reviews.ReviewDto;
 import masera.deviajeusersandauth.dtos.reviews.ReviewResponseCreateRequest;
 import masera.deviajeusersandauth.dtos.reviews.ReviewResponseDto;
 import masera.deviajeusersandauth.dtos.reviews.ReviewStatsDto;
+import masera.deviajeusersandauth.services.impl.ReviewStatsCache;
 import masera.deviajeusersandauth.services.interfaces.ReviewService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +25,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -32,6 +40,14 @@ public class ReviewController {
 
   private final ReviewService reviewService;
 
+  private final ReviewStatsCache reviewStatsCache;
+
+  @Value("${deviaje.app.reviewStats.maxAgeSeconds:30}")
+  private long statsMaxAgeSeconds;
+
+  @Value("${deviaje.app.reviewStats.sharedMaxAgeSeconds:60}")
+  private long statsSharedMaxAgeSeconds;
+
   /**
    * Crea una nueva review.
    * Solo CLIENTE y AGENTE pueden crear reviews.
@@ -49,20 +65,21 @@ public class ReviewController {
   }
 
   /**
-   * Obtiene todas las reviews o filtra por categoría.
+   * Obtiene las reviews paginadas por cursor, de la más nueva a la más vieja.
    *
+   * @param cursor cursor devuelto en la página anterior (campo next), vacío para la primera.
+   * @param size cantidad de reviews por página.
    * @param category categoría opcional para filtrar.
-   * @return lista de reviews.
+   * @param responses cantidad máxima de respuestas por review, vacío para incluirlas todas.
+   * @return página de reviews y cursor de la siguiente.
    */
   @GetMapping
-  public ResponseEntity<List<ReviewDto>> getReviews(
-          @RequestParam(required = false) String category) {
-    List<ReviewDto> reviews;
-    if (category != null && !category.isEmpty()) {
-      reviews = reviewService.getReviewsByCategory(category);
-    } else {
-      reviews = reviewService.getAllReviews();
-    }
+  public ResponseEntity<CursorPage<ReviewDto>> getReviews(
+          @RequestParam(required = false) String cursor,
+          @RequestParam(required = false) Integer size,
+          @RequestParam(required = false) String category,
+          @RequestParam(required = false) Integer responses) {
+    CursorPage<ReviewDto> reviews = reviewService.getReviews(cursor, size, category, responses);
     return ResponseEntity.ok(reviews);
   }
 
@@ -139,12 +156,48 @@ public class ReviewController {
 
   /**
    * Obtiene estadísticas de reviews.
+   * Se responden desde un caché con un ETag fuerte: si el cliente (o la CDN) envía
+   * el ETag vigente en If-None-Match se responde 304 sin calcularlas. Si la copia
+   * venció, se calculan y se responde 304 igual cuando el contenido no cambió.
    *
+   * @param ifNoneMatch ETags que el cliente ya tiene.
    * @return estadísticas generales.
    */
   @GetMapping("/stats")
-  public ResponseEntity<ReviewStatsDto> getReviewStats() {
-    ReviewStatsDto stats = reviewService.getReviewStats();
-    return ResponseEntity.ok(stats);
+  public ResponseEntity<ReviewStatsDto> getReviewStats(
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(statsMaxAgeSeconds))
+            .sMaxAge(Duration.ofSeconds(statsSharedMaxAgeSeconds))
+            .cachePublic();
+    String etag = reviewStatsCache.currentEtag();
+    if (etag != null && ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+      return notModified(etag, cacheControl);
+    }
+    ReviewStatsCache.Snapshot snapshot = reviewStatsCache.get(reviewService::getReviewStats);
+    if (ifNoneMatch != null && matches(ifNoneMatch, snapshot.etag())) {
+      return notModified(snapshot.etag(), cacheControl);
+    }
+    return ResponseEntity.ok()
+            .eTag(snapshot.etag())
+            .cacheControl(cacheControl)
+            .body(snapshot.stats());
+  }
+
+  private static ResponseEntity<ReviewStatsDto> notModified(String etag,
+                                                           CacheControl cacheControl) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .build();
+  }
+
+  /**
+   * Compara el If-None-Match con el ETag vigente; para este encabezado la
+   * comparación es débil, así que también coincide la versión W/ del ETag.
+   */
+  private static boolean matches(String ifNoneMatch, String etag) {
+    ETag current = ETag.create(etag);
+    return ETag.parse(ifNoneMatch).stream()
+            .anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
   }
 }
\ No newline at end of file
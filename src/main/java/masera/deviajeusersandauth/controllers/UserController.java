@@ -1,13 +1,23 @@
 package masera.deviajeusersandauth.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
 import masera.deviajeusersandauth.dtos.get.UserDto;
+import masera.deviajeusersandauth.dtos.get.UserFilter;
 import masera.deviajeusersandauth.dtos.post.users.UserCreateRequest;
 import masera.deviajeusersandauth.dtos.put.UserPut;
 import masera.deviajeusersandauth.dtos.responses.MessageResponse;
 import masera.deviajeusersandauth.services.interfaces.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -18,7 +28,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador REST para la gestión de usuarios.
@@ -31,6 +45,11 @@ public class UserController {
 
   private final UserService userService;
 
+  private final ObjectMapper objectMapper;
+
+  @Value("${deviaje.app.users.streamTimeoutSeconds:600}")
+  private long streamTimeoutSeconds;
+
   /**
    * Endpoint para obtener un usuario por su username con datos del pasaporte.
    *
@@ -44,16 +63,103 @@ public class UserController {
   }
 
   /**
-   * Endpoint para obtener todos los usuarios.
+   * Endpoint para obtener los usuarios paginados por cursor.
    *
-   * @return Lista de usuarios.
+   * @param cursor Cursor devuelto en la página anterior (campo next), vacío para la primera.
+   * @param size Cantidad de usuarios por página.
+   * @param filter Filtros opcionales por estado, rol y fecha de creación.
+   * @return Página de usuarios y cursor de la siguiente.
    */
   @GetMapping
-  public ResponseEntity<List<UserDto>> getAllUsers() {
-    List<UserDto> users = userService.getAllUsers();
+  public ResponseEntity<CursorPage<UserDto>> getUsers(
+          @RequestParam(required = false) Integer cursor,
+          @RequestParam(required = false) Integer size,
+          UserFilter filter) {
+    CursorPage<UserDto> users = userService.getUsers(cursor, size, filter);
     return ResponseEntity.ok(users);
   }
 
+  /**
+   * Endpoint para obtener todos los usuarios, solo para administradores.
+   * La respuesta se escribe a medida que se recorren las páginas, sin armar
+   * la lista completa en memoria. Si no termina dentro de
+   * deviaje.app.users.streamTimeoutSeconds, se corta.
+   *
+   * @param filter Filtros opcionales por estado, rol y fecha de creación.
+   * @param request Petición HTTP, para fijar el tiempo máximo de la respuesta asíncrona.
+   * @return Arreglo JSON con todos los usuarios.
+   */
+  @GetMapping("/all")
+  @PreAuthorize("hasAuthority('ADMINISTRADOR')")
+  public ResponseEntity<StreamingResponseBody> getAllUsers(UserFilter filter,
+                                                           HttpServletRequest request) {
+    setStreamTimeout(request);
+    StreamingResponseBody body = out -> {
+      try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+        generator.writeStartArray();
+        Integer cursor = null;
+        do {
+          CursorPage<UserDto> page = userService.getUsers(cursor, Integer.MAX_VALUE, filter);
+          for (UserDto user : page.getItems()) {
+            objectMapper.writeValue(generator, user);
+          }
+          generator.flush();
+          cursor = page.getNext() == null ? null : Integer.valueOf(page.getNext());
+        } while (cursor != null);
+        generator.writeEndArray();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  /**
+   * Endpoint para exportar todos los usuarios como JSON delimitado por líneas (NDJSON),
+   * un usuario por línea. Se lee con un cursor de la base de datos y se escribe a medida
+   * que se lee, por lo que la memoria usada no depende de la cantidad de usuarios.
+   * Si no termina dentro de deviaje.app.users.streamTimeoutSeconds, se corta.
+   *
+   * @param request Petición HTTP, para fijar el tiempo máximo de la respuesta asíncrona.
+   * @return Flujo NDJSON con todos los usuarios.
+   */
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @PreAuthorize("hasAuthority('ADMINISTRADOR')")
+  public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest request) {
+    setStreamTimeout(request);
+    StreamingResponseBody body = out -> {
+      try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+        // Los registros se separan solo con el salto de línea
+        generator.setRootValueSeparator(null);
+        userService.exportUsers(users -> {
+          try {
+            for (UserDto user : users) {
+              objectMapper.writeValue(generator, user);
+              generator.writeRaw('\n');
+            }
+            generator.flush();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Fija el tiempo máximo de una respuesta escrita en segundo plano. Sin él queda el
+   * del contenedor, que no está pensado para recorrer la tabla completa de usuarios.
+   *
+   * @param request Petición HTTP en curso.
+   */
+  private void setStreamTimeout(HttpServletRequest request) {
+    AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+    if (asyncRequest != null) {
+      asyncRequest.setTimeout(TimeUnit.SECONDS.toMillis(streamTimeoutSeconds));
+    }
+  }
+
   /**
    * Endpoint para obtener un usuario por su ROL.
    *
@@ -0,0 +1,29 @@
+package masera.deviajeusersandauth.dtos.common;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de resultados paginada por cursor (keyset).
+ *
+ * @param <T> el tipo de los elementos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+  /**
+   * Elementos de la página.
+   */
+  private List<T> items;
+
+  /**
+   * Cursor para pedir la página siguiente, o null si no hay más resultados.
+   */
+  private String next;
+}
@@ -0,0 +1,94 @@
+package masera.deviajeusersandauth.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * La clase {@code EmailOutboxEntity} representa un email pendiente de envío.
+ * Referencia a la tabla llamada "email_outbox".
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_status_next_attempt",
+                columnList = "status, next_attempt_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmailOutboxEntity {
+
+  /**
+   * Estado de un email en la bandeja de salida.
+   */
+  public enum Status {
+    /** Pendiente de envío, o de reintento. */
+    PENDING,
+    /** Enviado. */
+    SENT,
+    /** Descartado tras agotar los reintentos. */
+    DEAD
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "recipient", nullable = false)
+  private String recipient;
+
+  @Column(name = "subject", nullable = false)
+  private String subject;
+
+  /**
+   * Contenido del email. Se borra al enviarlo o descartarlo porque puede incluir
+   * contraseñas temporales.
+   */
+  @Lob
+  @Column(name = "body")
+  private String body;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 10)
+  private Status status;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  /**
+   * Momento a partir del cual el email puede tomarse para enviarlo.
+   */
+  @Column(name = "next_attempt_at", nullable = false)
+  private Instant nextAttemptAt;
+
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+
+  @Column(name = "sent_at")
+  private Instant sentAt;
+
+  @Column(name = "created_datetime")
+  private LocalDateTime createdDatetime;
+
+  /**
+   * Metodo que se ejecuta antes de persistir la entidad.
+   */
+  @PrePersist
+  protected void onCreate() {
+    createdDatetime = LocalDateTime.now();
+  }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -13,6 +14,7 @@ import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,7 +25,11 @@ import lombok.NoArgsConstructor;
  * Referencia a la tabla llamada "refresh_tokens".
  */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens",
+        indexes = {
+          @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"),
+          @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id")
+        })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -38,8 +44,31 @@ public class RefreshTokenEntity {
   @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
   private UserEntity user;
 
-  @Column(nullable = false, unique = true)
-  private String token;
+  /**
+   * Id del usuario, de solo lectura, para no tener que cargar el usuario.
+   */
+  @Column(name = "user_id", insertable = false, updatable = false)
+  private Integer userId;
+
+  /**
+   * Digest SHA-256 del token. El token original nunca se guarda.
+   */
+  @Column(name = "token_hash", nullable = false, unique = true, length = 32,
+          columnDefinition = "BINARY(32)")
+  private byte[] tokenHash;
+
+  /**
+   * Familia del token: todos los tokens obtenidos por rotación a partir de un
+   * mismo inicio de sesión comparten la familia.
+   */
+  @Column(name = "family_id", nullable = false)
+  private UUID familyId;
+
+  /**
+   * Momento en que el token se rotó por uno nuevo, o null si es el vigente de su familia.
+   */
+  @Column(name = "rotated_at")
+  private Instant rotatedAt;
 
   @Column(name = "expiry_date", nullable = false)
   private Instant expiryDate;
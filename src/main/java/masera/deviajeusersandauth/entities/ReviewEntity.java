@@ -4,9 +4,11 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -27,7 +29,12 @@ import lombok.Setter;
  * Solo CLIENTE y AGENTE pueden crear reviews.
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews",
+        indexes = {
+          @Index(name = "idx_reviews_created_id", columnList = "created_datetime, id"),
+          @Index(name = "idx_reviews_category_created_id",
+                  columnList = "category, created_datetime, id")
+        })
 @Getter
 @Setter
 @AllArgsConstructor
@@ -39,7 +46,7 @@ public class ReviewEntity {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "user_id", nullable = false)
   private UserEntity user;
 
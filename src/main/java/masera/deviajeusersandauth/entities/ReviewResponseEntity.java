@@ -2,9 +2,11 @@ package masera.deviajeusersandauth.entities;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -22,7 +24,9 @@ import lombok.Setter;
  * Cualquier usuario registrado puede responder.
  */
 @Entity
-@Table(name = "reviews_responses")
+@Table(name = "reviews_responses",
+        indexes = @Index(name = "idx_reviews_responses_review_created_id",
+                columnList = "review_id, created_datetime, id"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -34,11 +38,11 @@ public class ReviewResponseEntity {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "review_id", nullable = false)
   private ReviewEntity review;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "user_id", nullable = false)
   private UserEntity user;
 
@@ -0,0 +1,46 @@
+package masera.deviajeusersandauth.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * La clase {@code ReviewStatEntity} representa la cantidad de reviews de una
+ * categoría con un rating dado. Se actualiza al crear y eliminar reviews, de modo que
+ * las estadísticas se calculan sin recorrer la tabla de reviews.
+ * Referencia a la tabla llamada "review_stats".
+ */
+@Entity
+@Table(name = "review_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_review_stats_category_rating",
+                columnNames = {"category", "rating"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReviewStatEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "category", nullable = false, length = 20)
+  private ReviewEntity.ReviewCategory category;
+
+  @Column(name = "rating", nullable = false)
+  private Integer rating;
+
+  @Column(name = "review_count", nullable = false)
+  private Long reviewCount;
+}
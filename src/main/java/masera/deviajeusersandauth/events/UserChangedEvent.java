@@ -0,0 +1,19 @@
+package masera.deviajeusersandauth.events;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evento que se publica cuando cambian datos de un usuario que afectan
+ * su autenticación (datos personales, roles, estado activo o contraseña).
+ * Los caches que guardan información del usuario lo escuchan para invalidarse.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserChangedEvent {
+
+  /**
+   * Id del usuario modificado.
+   */
+  private final Integer userId;
+}
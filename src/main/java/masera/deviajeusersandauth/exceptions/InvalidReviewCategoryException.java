@@ -0,0 +1,17 @@
+package masera.deviajeusersandauth.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para una categoría de review que no existe.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidReviewCategoryException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public InvalidReviewCategoryException(String message) {
+    super(message);
+  }
+}
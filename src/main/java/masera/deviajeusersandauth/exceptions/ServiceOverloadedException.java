@@ -0,0 +1,26 @@
+package masera.deviajeusersandauth.exceptions;
+
+import java.io.Serial;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción personalizada para indicar que el servicio está saturado
+ * y no puede aceptar más trabajo por el momento.
+ * Esta excepción se utiliza para manejar errores de tipo 503 Service Unavailable.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructor de la excepción ServiceOverloadedException.
+   *
+   * @param message el mensaje de error que describe la causa de la excepción
+   */
+  public ServiceOverloadedException(String message) {
+    super(message);
+  }
+}
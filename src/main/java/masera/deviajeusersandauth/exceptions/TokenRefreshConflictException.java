@@ -0,0 +1,20 @@
+package masera.deviajeusersandauth.exceptions;
+
+import java.io.Serial;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para un token de refresco que otra solicitud acaba de rotar.
+ * El cliente debe usar el token que recibió en esa solicitud.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TokenRefreshConflictException extends RuntimeException {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  public TokenRefreshConflictException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,363 @@
+package masera.deviajeusersandauth.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import masera.deviajeusersandauth.entities.EmailOutboxEntity;
+import masera.deviajeusersandauth.entities.EmailOutboxEntity.Status;
+import masera.deviajeusersandauth.repositories.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tarea programada que envía los emails de la tabla "email_outbox".
+ * Toma los pendientes en bloques y los reparte entre unas pocas conexiones SMTP:
+ * cada conexión envía su parte del bloque con una sola sesión. Un email que falla
+ * se reintenta con espera exponencial y, agotados los intentos, queda descartado
+ * (DEAD) para revisarlo a mano. Al enviarlo o descartarlo se borra su contenido,
+ * que puede incluir contraseñas temporales.
+ * Al tomar un bloque se posterga su próximo intento, así otra ejecución u otra
+ * instancia no lo vuelve a tomar mientras se envía, y si la instancia se detiene
+ * en medio del envío el email se reintenta al vencer esa espera.
+ * Las conexiones SMTP corren en un pool propio, con un hilo por conexión: un servidor
+ * SMTP lento no ocupa los hilos que usan el login o el registro.
+ */
+@Component
+@ConditionalOnProperty(name = "deviaje.app.email.enabled", havingValue = "true",
+        matchIfMissing = true)
+public class EmailOutboxDispatcher implements DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+  private static final int MAX_ERROR_LENGTH = 500;
+
+  private final EmailOutboxRepository emailOutboxRepository;
+
+  private final JavaMailSender mailSender;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ThreadPoolExecutor connections;
+
+  private final String fromEmail;
+
+  private final int batchSize;
+
+  private final int connectionCount;
+
+  private final int maxAttempts;
+
+  private final long backoffMs;
+
+  private final long maxBackoffMs;
+
+  private final long leaseMs;
+
+  private final AtomicLong pending = new AtomicLong();
+
+  private final AtomicLong dead = new AtomicLong();
+
+  private final Timer sendLatency;
+
+  private final Timer deliveryDelay;
+
+  private final Counter sent;
+
+  private final Counter retried;
+
+  private final Counter deadLettered;
+
+  /**
+   * Constructor de la tarea.
+   *
+   * @param emailOutboxRepository repositorio de la bandeja de salida.
+   * @param mailSender cliente SMTP.
+   * @param transactionManager administrador de transacciones.
+   * @param fromEmail remitente de los emails.
+   * @param batchSize cantidad máxima de emails que se toman por vez.
+   * @param connectionCount cantidad de conexiones SMTP en paralelo, que es también la
+   *                        cantidad de hilos del pool de conexiones.
+   * @param maxAttempts intentos antes de descartar un email.
+   * @param backoffMs espera antes del primer reintento, que se duplica en cada fallo.
+   * @param maxBackoffMs espera máxima entre reintentos.
+   * @param leaseMs tiempo que un email tomado queda reservado para su envío.
+   * @param meterRegistry registro de métricas.
+   */
+  public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                               JavaMailSender mailSender,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${spring.mail.username}") String fromEmail,
+                               @Value("${deviaje.app.email.outbox.batchSize:50}") int batchSize,
+                               @Value("${deviaje.app.email.outbox.connections:2}")
+                               int connectionCount,
+                               @Value("${deviaje.app.email.outbox.maxAttempts:8}")
+                               int maxAttempts,
+                               @Value("${deviaje.app.email.outbox.backoffMs:30000}")
+                               long backoffMs,
+                               @Value("${deviaje.app.email.outbox.maxBackoffMs:3600000}")
+                               long maxBackoffMs,
+                               @Value("${deviaje.app.email.outbox.leaseMs:300000}") long leaseMs,
+                               MeterRegistry meterRegistry) {
+    this.emailOutboxRepository = emailOutboxRepository;
+    this.mailSender = mailSender;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.fromEmail = fromEmail;
+    this.batchSize = batchSize;
+    this.connectionCount = connectionCount;
+    this.maxAttempts = maxAttempts;
+    this.backoffMs = backoffMs;
+    this.maxBackoffMs = maxBackoffMs;
+    this.leaseMs = leaseMs;
+    // Cada ejecución envía a lo sumo connectionCount partes y espera a todas: la cola
+    // nunca acumula más que un bloque, por eso no necesita límite ni rechaza tareas
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.connections = new ThreadPoolExecutor(connectionCount, connectionCount,
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable,
+                      "email-smtp-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    new ExecutorServiceMetrics(connections, "email.outbox.connections", Tags.empty())
+            .bindTo(meterRegistry);
+
+    Gauge.builder("deviaje.email.outbox.depth", pending, AtomicLong::get)
+            .description("Emails en la bandeja de salida por estado")
+            .tag("status", "pending")
+            .register(meterRegistry);
+    Gauge.builder("deviaje.email.outbox.depth", dead, AtomicLong::get)
+            .description("Emails en la bandeja de salida por estado")
+            .tag("status", "dead")
+            .register(meterRegistry);
+    this.sendLatency = Timer.builder("deviaje.email.outbox.send")
+            .description("Duración de cada envío SMTP de un bloque de emails")
+            .register(meterRegistry);
+    this.deliveryDelay = Timer.builder("deviaje.email.outbox.delivery")
+            .description("Tiempo desde que un email se encola hasta que se envía")
+            .register(meterRegistry);
+    this.sent = resultCounter(meterRegistry, "sent");
+    this.retried = resultCounter(meterRegistry, "retry");
+    this.deadLettered = resultCounter(meterRegistry, "dead");
+  }
+
+  private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("deviaje.email.outbox.results")
+            .description("Resultados de los intentos de envío de emails")
+            .tag("result", result)
+            .register(meterRegistry);
+  }
+
+  /**
+   * Envía los emails pendientes, bloque por bloque, hasta vaciar los vencidos.
+   */
+  @Scheduled(fixedDelayString = "${deviaje.app.email.outbox.intervalMs:5000}")
+  public synchronized void dispatch() {
+    List<EmailOutboxEntity> batch;
+    do {
+      batch = claim();
+      if (!batch.isEmpty()) {
+        send(batch);
+      }
+    } while (batch.size() == batchSize);
+
+    pending.set(emailOutboxRepository.countByStatus(Status.PENDING));
+    dead.set(emailOutboxRepository.countByStatus(Status.DEAD));
+  }
+
+  /**
+   * Toma un bloque de emails vencidos y los reserva, en una transacción corta:
+   * el envío SMTP ocurre fuera de ella para no retener la conexión ni los bloqueos.
+   */
+  private List<EmailOutboxEntity> claim() {
+    return transactionTemplate.execute(status -> {
+      Instant now = Instant.now();
+      List<EmailOutboxEntity> due = emailOutboxRepository.lockDue(now, batchSize);
+      for (EmailOutboxEntity email : due) {
+        email.setAttempts(email.getAttempts() + 1);
+        email.setNextAttemptAt(now.plusMillis(leaseMs));
+      }
+      return due;
+    });
+  }
+
+  /**
+   * Reparte el bloque entre las conexiones y registra el resultado de cada parte que
+   * terminó. Los emails de una parte que no terminó (hilo interrumpido o error
+   * inesperado) quedan reservados y se reintentan al vencer la reserva; los de las
+   * demás partes se registran igual, para no volver a enviarlos.
+   */
+  private void send(List<EmailOutboxEntity> batch) {
+    int chunkSize = (batch.size() + connectionCount - 1) / connectionCount;
+    List<Chunk> chunks = new ArrayList<>();
+    for (int from = 0; from < batch.size(); from += chunkSize) {
+      List<EmailOutboxEntity> emails =
+              batch.subList(from, Math.min(from + chunkSize, batch.size()));
+      Future<Map<Long, Exception>> result;
+      try {
+        result = connections.submit(() -> sendChunk(emails));
+      } catch (RejectedExecutionException e) {
+        result = CompletableFuture.failedFuture(e);
+      }
+      chunks.add(new Chunk(emails, result));
+    }
+
+    Map<Long, Exception> failures = new HashMap<>();
+    List<EmailOutboxEntity> finished = new ArrayList<>();
+    boolean interrupted = false;
+    for (Chunk chunk : chunks) {
+      if (!interrupted) {
+        try {
+          chunk.result().get();
+        } catch (InterruptedException e) {
+          // Se registran las partes ya terminadas sin esperar a las demás
+          interrupted = true;
+        } catch (ExecutionException | CancellationException e) {
+          logger.error("Error inesperado al enviar una parte del bloque de emails", e);
+        }
+      }
+      if (chunk.result().state() == Future.State.SUCCESS) {
+        failures.putAll(chunk.result().resultNow());
+        finished.addAll(chunk.emails());
+      }
+    }
+    if (!finished.isEmpty()) {
+      record(finished, failures);
+    }
+    // La interrupción se restablece después de registrar, para no cortar la transacción
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Una parte del bloque y el resultado de su envío.
+   */
+  private record Chunk(List<EmailOutboxEntity> emails, Future<Map<Long, Exception>> result) {
+  }
+
+  /**
+   * Envía una parte del bloque por una misma conexión SMTP.
+   *
+   * @return los emails que fallaron, con su error.
+   */
+  private Map<Long, Exception> sendChunk(List<EmailOutboxEntity> chunk) {
+    Map<Long, Exception> failures = new HashMap<>();
+    Map<MimeMessage, Long> ids = new LinkedHashMap<>();
+    for (EmailOutboxEntity email : chunk) {
+      try {
+        ids.put(toMessage(email), email.getId());
+      } catch (MessagingException e) {
+        failures.put(email.getId(), e);
+      }
+    }
+    if (ids.isEmpty()) {
+      return failures;
+    }
+
+    Timer.Sample sample = Timer.start();
+    try {
+      mailSender.send(ids.keySet().toArray(MimeMessage[]::new));
+    } catch (MailSendException e) {
+      e.getFailedMessages().forEach((message, error) -> failures.put(ids.get(message), error));
+    } catch (MailException e) {
+      // Sin conexión o sin autenticación: falla toda la parte
+      ids.values().forEach(id -> failures.put(id, e));
+    } finally {
+      sample.stop(sendLatency);
+    }
+    return failures;
+  }
+
+  private MimeMessage toMessage(EmailOutboxEntity email) throws MessagingException {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    helper.setFrom(fromEmail);
+    helper.setTo(email.getRecipient());
+    helper.setSubject(email.getSubject());
+    helper.setText(email.getBody(), true);
+    return message;
+  }
+
+  private void record(List<EmailOutboxEntity> batch, Map<Long, Exception> failures) {
+    Instant now = Instant.now();
+    List<Long> sentIds = new ArrayList<>();
+    transactionTemplate.executeWithoutResult(status -> {
+      for (EmailOutboxEntity email : batch) {
+        Exception error = failures.get(email.getId());
+        if (error == null) {
+          sentIds.add(email.getId());
+          deliveryDelay.record(Duration.between(email.getCreatedDatetime(), LocalDateTime.now()));
+        } else if (email.getAttempts() >= maxAttempts) {
+          emailOutboxRepository.markDead(email.getId(), now, describe(error));
+          deadLettered.increment();
+          logger.error("Se descarta el email {} a {} tras {} intentos", email.getId(),
+                  email.getRecipient(), email.getAttempts(), error);
+        } else {
+          emailOutboxRepository.markRetry(email.getId(),
+                  now.plusMillis(backoff(email.getAttempts())), describe(error));
+          retried.increment();
+          logger.warn("No se pudo enviar el email {} (intento {}): {}", email.getId(),
+                  email.getAttempts(), error.getMessage());
+        }
+      }
+      if (!sentIds.isEmpty()) {
+        emailOutboxRepository.markSent(sentIds, now);
+        sent.increment(sentIds.size());
+      }
+    });
+  }
+
+  /**
+   * Espera antes del próximo intento: se duplica en cada fallo hasta el máximo.
+   */
+  private long backoff(int attempts) {
+    int exponent = Math.min(attempts - 1, 30);
+    return Math.min(maxBackoffMs, backoffMs << exponent);
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    connections.shutdown();
+    connections.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private static String describe(Exception error) {
+    String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+    return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+  }
+}
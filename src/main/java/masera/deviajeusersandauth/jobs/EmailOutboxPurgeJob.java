@@ -0,0 +1,76 @@
+package masera.deviajeusersandauth.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import masera.deviajeusersandauth.repositories.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarea programada que elimina de la bandeja de salida los emails enviados o
+ * descartados hace más de los días de retención. Su contenido ya se borró al
+ * terminar; quedan solo el destinatario, el asunto y el resultado.
+ * Borra en bloques de tamaño fijo, cada uno en su propia transacción.
+ */
+@Component
+public class EmailOutboxPurgeJob {
+
+  private static final Logger logger = LoggerFactory.getLogger(EmailOutboxPurgeJob.class);
+
+  private final EmailOutboxRepository emailOutboxRepository;
+
+  private final Duration retention;
+
+  private final int chunkSize;
+
+  private final Counter purged;
+
+  /**
+   * Constructor de la tarea.
+   *
+   * @param emailOutboxRepository repositorio de la bandeja de salida.
+   * @param retentionDays días que se conservan los emails enviados o descartados.
+   * @param chunkSize cantidad máxima de filas por sentencia DELETE.
+   * @param meterRegistry registro de métricas.
+   */
+  public EmailOutboxPurgeJob(EmailOutboxRepository emailOutboxRepository,
+                             @Value("${deviaje.app.email.outbox.retentionDays:30}")
+                             long retentionDays,
+                             @Value("${deviaje.app.email.outbox.purgeChunkSize:1000}")
+                             int chunkSize,
+                             MeterRegistry meterRegistry) {
+    this.emailOutboxRepository = emailOutboxRepository;
+    this.retention = Duration.ofDays(retentionDays);
+    this.chunkSize = chunkSize;
+    this.purged = Counter.builder("deviaje.email.outbox.purged")
+            .description("Emails enviados o descartados eliminados por la retención")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Elimina los emails terminados más viejos que la retención.
+   *
+   * @return la cantidad de emails eliminados.
+   */
+  @Scheduled(cron = "${deviaje.app.email.outbox.purgeCron:0 30 * * * *}")
+  public long purge() {
+    Instant before = Instant.now().minus(retention);
+    long total = 0;
+    int deleted;
+    do {
+      deleted = emailOutboxRepository.deleteFinished(before, chunkSize);
+      total += deleted;
+      purged.increment(deleted);
+    } while (deleted == chunkSize);
+
+    if (total > 0) {
+      logger.info("Limpieza de la bandeja de salida: {} emails", total);
+    }
+    return total;
+  }
+}
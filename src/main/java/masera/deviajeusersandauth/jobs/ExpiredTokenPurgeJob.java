@@ -0,0 +1,125 @@
+package masera.deviajeusersandauth.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.function.IntUnaryOperator;
+import masera.deviajeusersandauth.repositories.PasswordResetTokenRepository;
+import masera.deviajeusersandauth.repositories.RefreshTokenRepository;
+import masera.deviajeusersandauth.services.interfaces.RefreshTokenStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarea programada que elimina los tokens de refresco expirados y los tokens de
+ * restablecimiento de contraseña expirados o ya utilizados.
+ * Borra en bloques de tamaño fijo, cada uno en su propia transacción, y hace una
+ * pausa entre bloques para no retener bloqueos ni saturar la base de datos. La pausa
+ * ocupa solo el hilo de esta tarea: el pool del scheduler tiene un hilo por tarea
+ * programada ({@code spring.task.scheduling.pool.size}).
+ */
+@Component
+public class ExpiredTokenPurgeJob {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExpiredTokenPurgeJob.class);
+
+  private final RefreshTokenRepository refreshTokenRepository;
+
+  private final PasswordResetTokenRepository passwordResetTokenRepository;
+
+  private final RefreshTokenStore refreshTokenStore;
+
+  private final int chunkSize;
+
+  private final long pauseMs;
+
+  private final Counter refreshTokensPurged;
+
+  private final Counter resetTokensPurged;
+
+  private final Timer duration;
+
+  /**
+   * Constructor de la tarea.
+   *
+   * @param refreshTokenRepository repositorio de tokens de refresco.
+   * @param passwordResetTokenRepository repositorio de tokens de restablecimiento.
+   * @param refreshTokenStore almacén de tokens de refresco.
+   * @param chunkSize cantidad máxima de filas por sentencia DELETE.
+   * @param pauseMs pausa entre bloques en milisegundos.
+   * @param meterRegistry registro de métricas.
+   */
+  public ExpiredTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                              PasswordResetTokenRepository passwordResetTokenRepository,
+                              RefreshTokenStore refreshTokenStore,
+                              @Value("${deviaje.app.tokenPurge.chunkSize:1000}") int chunkSize,
+                              @Value("${deviaje.app.tokenPurge.pauseMs:200}") long pauseMs,
+                              MeterRegistry meterRegistry) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.passwordResetTokenRepository = passwordResetTokenRepository;
+    this.refreshTokenStore = refreshTokenStore;
+    this.chunkSize = chunkSize;
+    this.pauseMs = pauseMs;
+    this.refreshTokensPurged = Counter.builder("deviaje.tokens.purged")
+            .description("Tokens eliminados por la limpieza programada")
+            .tag("table", "refresh_tokens")
+            .register(meterRegistry);
+    this.resetTokensPurged = Counter.builder("deviaje.tokens.purged")
+            .description("Tokens eliminados por la limpieza programada")
+            .tag("table", "password_reset_tokens")
+            .register(meterRegistry);
+    this.duration = Timer.builder("deviaje.tokens.purge.duration")
+            .description("Duración de cada ejecución de la limpieza de tokens")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Ejecuta la limpieza de tokens.
+   */
+  @Scheduled(cron = "${deviaje.app.tokenPurge.cron:0 */15 * * * *}")
+  public void purge() {
+    duration.record(() -> {
+      long refreshTokens = purgeInChunks(limit ->
+              refreshTokenRepository.deleteExpired(Instant.now(), limit), refreshTokensPurged);
+      long resetTokens = purgeInChunks(limit ->
+              passwordResetTokenRepository.deleteExpired(LocalDateTime.now(), limit),
+              resetTokensPurged)
+              + purgeInChunks(passwordResetTokenRepository::deleteUsed, resetTokensPurged);
+      int evicted = refreshTokenStore.evictExpired();
+
+      if (refreshTokens > 0 || resetTokens > 0 || evicted > 0) {
+        logger.info("Limpieza de tokens: {} de refresco, {} de restablecimiento, {} en memoria",
+                refreshTokens, resetTokens, evicted);
+      }
+    });
+  }
+
+  private long purgeInChunks(IntUnaryOperator deleteChunk, Counter purged) {
+    long total = 0;
+    int deleted;
+    do {
+      deleted = deleteChunk.applyAsInt(chunkSize);
+      total += deleted;
+      purged.increment(deleted);
+      if (deleted == chunkSize && !pause()) {
+        break;
+      }
+    } while (deleted == chunkSize);
+    return total;
+  }
+
+  private boolean pause() {
+    try {
+      Thread.sleep(pauseMs);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
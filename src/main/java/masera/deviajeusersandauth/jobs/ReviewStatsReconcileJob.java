@@ -0,0 +1,137 @@
+package masera.deviajeusersandauth.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import masera.deviajeusersandauth.entities.ReviewEntity.ReviewCategory;
+import masera.deviajeusersandauth.entities.ReviewStatEntity;
+import masera.deviajeusersandauth.repositories.ReviewRepository;
+import masera.deviajeusersandauth.repositories.ReviewStatRepository;
+import masera.deviajeusersandauth.repositories.projections.ReviewRatingCount;
+import masera.deviajeusersandauth.services.impl.ReviewStatsCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tarea programada que recalcula los contadores de review_stats a partir de la tabla
+ * de reviews y corrige los que difieren (por ejemplo, reviews cargadas o borradas
+ * directamente en la base). Al iniciar la aplicación también crea los contadores de
+ * una base que ya tenía reviews.
+ * Los contadores quedan bloqueados mientras se recalculan, así las altas y bajas
+ * concurrentes esperan y se suman sobre el valor corregido.
+ */
+@Component
+public class ReviewStatsReconcileJob {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReviewStatsReconcileJob.class);
+
+  private static final int MAX_RATING = 5;
+
+  /** Contador que todavía no existe en la tabla. */
+  private static final long MISSING = -1;
+
+  private final ReviewRepository reviewRepository;
+
+  private final ReviewStatRepository reviewStatRepository;
+
+  private final ReviewStatsCache reviewStatsCache;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Counter corrections;
+
+  /**
+   * Constructor de la tarea.
+   *
+   * @param reviewRepository repositorio de reviews.
+   * @param reviewStatRepository repositorio de los contadores de reviews.
+   * @param reviewStatsCache caché de las estadísticas de reviews.
+   * @param transactionManager administrador de transacciones.
+   * @param meterRegistry registro de métricas.
+   */
+  public ReviewStatsReconcileJob(ReviewRepository reviewRepository,
+                                 ReviewStatRepository reviewStatRepository,
+                                 ReviewStatsCache reviewStatsCache,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+    this.reviewRepository = reviewRepository;
+    this.reviewStatRepository = reviewStatRepository;
+    this.reviewStatsCache = reviewStatsCache;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.corrections = Counter.builder("deviaje.reviews.stats.corrections")
+            .description("Contadores de reviews corregidos por la reconciliación")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Reconcilia los contadores al iniciar la aplicación.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void reconcileOnStartup() {
+    reconcile();
+  }
+
+  /**
+   * Recalcula los contadores y corrige los que difieren.
+   *
+   * @return la cantidad de contadores corregidos.
+   */
+  @Scheduled(cron = "${deviaje.app.reviewStats.reconcileCron:0 0 3 * * *}")
+  public int reconcile() {
+    int corrected = transactionTemplate.execute(status -> {
+      Map<ReviewCategory, long[]> stored = counts(MISSING);
+      for (ReviewStatEntity stat : reviewStatRepository.lockAll()) {
+        stored.get(stat.getCategory())[stat.getRating() - 1] = stat.getReviewCount();
+      }
+      Map<ReviewCategory, long[]> actual = counts(0);
+      for (ReviewRatingCount count : reviewRepository.countByCategoryAndRating()) {
+        actual.get(count.category())[count.rating() - 1] = count.count();
+      }
+
+      int changes = 0;
+      for (ReviewCategory category : ReviewCategory.values()) {
+        for (int i = 0; i < MAX_RATING; i++) {
+          long was = stored.get(category)[i];
+          long expected = actual.get(category)[i];
+          // Se crean también los contadores en cero, así existen todas las combinaciones
+          if (was != expected) {
+            reviewStatRepository.overwrite(category.name(), i + 1, expected);
+            if (was != MISSING || expected != 0) {
+              changes++;
+            }
+          }
+        }
+      }
+      return changes;
+    });
+
+    if (corrected > 0) {
+      reviewStatsCache.invalidate();
+      corrections.increment(corrected);
+      logger.warn("Reconciliación de estadísticas de reviews: {} contadores corregidos",
+              corrected);
+    }
+    return corrected;
+  }
+
+  /**
+   * Cantidades por categoría, indexadas por rating menos uno.
+   */
+  private static Map<ReviewCategory, long[]> counts(long initial) {
+    Map<ReviewCategory, long[]> counts = new EnumMap<>(ReviewCategory.class);
+    for (ReviewCategory category : ReviewCategory.values()) {
+      long[] ratings = new long[MAX_RATING];
+      Arrays.fill(ratings, initial);
+      counts.put(category, ratings);
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,50 @@
+package masera.deviajeusersandauth.mappers;
+
+import masera.deviajeusersandauth.dtos.get.PassportDto;
+import masera.deviajeusersandauth.dtos.post.users.PassportRequest;
+import masera.deviajeusersandauth.entities.PassportEntity;
+import masera.deviajeusersandauth.repositories.projections.PassportSummary;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Mapper de pasaportes, generado en compilación.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        builder = @Builder(disableBuilder = true))
+public interface PassportMapper {
+
+  /**
+   * Convierte una solicitud en un pasaporte nuevo, sin usuario asignado.
+   *
+   * @param request la solicitud.
+   * @return el pasaporte.
+   */
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "user", ignore = true)
+  @Mapping(target = "createdDatetime", ignore = true)
+  @Mapping(target = "createdUser", ignore = true)
+  @Mapping(target = "lastUpdatedDatetime", ignore = true)
+  @Mapping(target = "lastUpdatedUser", ignore = true)
+  PassportEntity toEntity(PassportRequest request);
+
+  /**
+   * Convierte un pasaporte en su DTO.
+   *
+   * @param passport el pasaporte.
+   * @return el DTO.
+   */
+  PassportDto toDto(PassportEntity passport);
+
+  /**
+   * Convierte la proyección de un pasaporte en su DTO.
+   *
+   * @param passport la proyección.
+   * @return el DTO.
+   */
+  PassportDto toDto(PassportSummary passport);
+}
@@ -0,0 +1,62 @@
+package masera.deviajeusersandauth.mappers;
+
+import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
+import masera.deviajeusersandauth.dtos.post.users.UserCreateRequest;
+import masera.deviajeusersandauth.entities.UserEntity;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Mapper de solicitudes de alta a entidades de usuario, generado en compilación.
+ * La contraseña no se copia: el servicio asigna su hash. Los datos de auditoría,
+ * roles, membresía y estado también los completa el servicio; un campo nuevo de la
+ * entidad sin mapear ni ignorar hace fallar la compilación. Se usa el constructor
+ * sin argumentos (no el builder) para que las colecciones queden inicializadas.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
+        unmappedTargetPolicy = ReportingPolicy.ERROR,
+        builder = @Builder(disableBuilder = true))
+public interface UserMapper {
+
+  /**
+   * Convierte la solicitud de un administrador en un usuario nuevo.
+   *
+   * @param request la solicitud.
+   * @return el usuario, sin id ni contraseña.
+   */
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "password", ignore = true)
+  @Mapping(target = "isTemporaryPassword", ignore = true)
+  @Mapping(target = "countryCallingCode", ignore = true)
+  @Mapping(target = "active", ignore = true)
+  @Mapping(target = "avatarUrl", ignore = true)
+  @Mapping(target = "createdDatetime", ignore = true)
+  @Mapping(target = "lastUpdatedDatetime", ignore = true)
+  @Mapping(target = "lastUpdatedUser", ignore = true)
+  @Mapping(target = "userRoles", ignore = true)
+  @Mapping(target = "userMembership", ignore = true)
+  UserEntity toEntity(UserCreateRequest request);
+
+  /**
+   * Convierte una solicitud de registro en un usuario nuevo.
+   *
+   * @param request la solicitud.
+   * @return el usuario, sin id ni contraseña.
+   */
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "password", ignore = true)
+  @Mapping(target = "isTemporaryPassword", ignore = true)
+  @Mapping(target = "countryCallingCode", ignore = true)
+  @Mapping(target = "active", ignore = true)
+  @Mapping(target = "avatarUrl", ignore = true)
+  @Mapping(target = "createdDatetime", ignore = true)
+  @Mapping(target = "lastUpdatedDatetime", ignore = true)
+  @Mapping(target = "lastUpdatedUser", ignore = true)
+  @Mapping(target = "userRoles", ignore = true)
+  @Mapping(target = "userMembership", ignore = true)
+  @Mapping(target = "createdUser", ignore = true)
+  UserEntity toEntity(SignupRequest request);
+}
@@ -0,0 +1,100 @@
+package masera.deviajeusersandauth.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import masera.deviajeusersandauth.entities.EmailOutboxEntity;
+import masera.deviajeusersandauth.entities.EmailOutboxEntity.Status;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Conecta la aplicación con la base de datos para manejar la bandeja de salida de emails.
+ */
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+  /**
+   * Bloquea un bloque de emails pendientes cuyo próximo intento ya venció.
+   * Las filas bloqueadas por otra instancia se saltean en lugar de esperarlas,
+   * por lo que varias instancias pueden despachar en paralelo sin repetir envíos.
+   * Debe llamarse dentro de una transacción.
+   *
+   * @param now el instante actual.
+   * @param limit cantidad máxima de emails.
+   * @return una lista de {@link EmailOutboxEntity}
+   */
+  @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' "
+          + "AND next_attempt_at <= :now ORDER BY next_attempt_at LIMIT :limit "
+          + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<EmailOutboxEntity> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+  /**
+   * Marca varios emails como enviados en una sola sentencia y borra su contenido,
+   * que puede incluir contraseñas temporales.
+   *
+   * @param ids los ids de los emails.
+   * @param sentAt el momento del envío.
+   * @return la cantidad de filas actualizadas.
+   */
+  @Modifying
+  @Query("UPDATE EmailOutboxEntity e SET e.status = 'SENT', e.sentAt = :sentAt, "
+          + "e.body = NULL, e.lastError = NULL WHERE e.id IN :ids")
+  int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Instant sentAt);
+
+  /**
+   * Registra un envío fallido que se vuelve a intentar.
+   *
+   * @param id el id del email.
+   * @param nextAttemptAt el momento del próximo intento.
+   * @param lastError el motivo del fallo.
+   * @return la cantidad de filas actualizadas.
+   */
+  @Modifying
+  @Query("UPDATE EmailOutboxEntity e SET e.status = 'PENDING', "
+          + "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError WHERE e.id = :id")
+  int markRetry(@Param("id") Long id, @Param("nextAttemptAt") Instant nextAttemptAt,
+                @Param("lastError") String lastError);
+
+  /**
+   * Descarta un email que agotó sus intentos y borra su contenido, que puede incluir
+   * contraseñas temporales. Quedan el destinatario, el asunto y el motivo del fallo.
+   *
+   * @param id el id del email.
+   * @param failedAt el momento del último intento.
+   * @param lastError el motivo del fallo.
+   * @return la cantidad de filas actualizadas.
+   */
+  @Modifying
+  @Query("UPDATE EmailOutboxEntity e SET e.status = 'DEAD', e.nextAttemptAt = :failedAt, "
+          + "e.body = NULL, e.lastError = :lastError WHERE e.id = :id")
+  int markDead(@Param("id") Long id, @Param("failedAt") Instant failedAt,
+               @Param("lastError") String lastError);
+
+  /**
+   * Elimina un bloque de emails enviados o descartados en su propia transacción.
+   * Filtra por next_attempt_at, que en un email terminado queda cerca de su último
+   * intento, para recorrer solo el índice (status, next_attempt_at).
+   *
+   * @param before se eliminan los emails cuyo último intento es anterior a este instante.
+   * @param limit cantidad máxima de filas a eliminar.
+   * @return la cantidad de filas eliminadas.
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM email_outbox WHERE status IN ('SENT', 'DEAD') "
+          + "AND next_attempt_at < :before LIMIT :limit", nativeQuery = true)
+  int deleteFinished(@Param("before") Instant before, @Param("limit") int limit);
+
+  /**
+   * Cuenta los emails en un estado.
+   *
+   * @param status el estado.
+   * @return la cantidad de emails.
+   */
+  long countByStatus(Status status);
+}
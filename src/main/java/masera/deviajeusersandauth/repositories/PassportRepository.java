@@ -1,9 +1,17 @@
 package masera.deviajeusersandauth.repositories;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import masera.deviajeusersandauth.entities.PassportEntity;
 import masera.deviajeusersandauth.entities.UserEntity;
+import masera.deviajeusersandauth.repositories.projections.PassportSummary;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -20,6 +28,17 @@ public interface PassportRepository extends JpaRepository<PassportEntity, Intege
    */
   Optional<PassportEntity> findByUser(UserEntity user);
 
+  /**
+   * Encuentra los pasaportes de varios usuarios en una sola consulta.
+   *
+   * @param userIds ids de los usuarios.
+   * @return los pasaportes encontrados.
+   */
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.PassportSummary("
+          + "p.user.id, p.id, p.passportNumber, p.expiryDate, p.issuanceCountry, "
+          + "p.nationality) FROM PassportEntity p WHERE p.user.id IN :userIds")
+  List<PassportSummary> findSummariesByUserIdIn(Collection<Integer> userIds);
+
   /**
    * Encuentra un pasaporte por su número.
    *
@@ -28,6 +47,16 @@ public interface PassportRepository extends JpaRepository<PassportEntity, Intege
    */
   Optional<PassportEntity> findByPassportNumber(String passportNumber);
 
+  /**
+   * Recorre los números de pasaporte con un cursor de solo avance.
+   *
+   * @return un {@link Stream} con los números de pasaporte.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE,
+          value = "" + UserRepository.EXPORT_FETCH_SIZE))
+  @Query("SELECT p.passportNumber FROM PassportEntity p")
+  Stream<String> streamAllPassportNumbers();
+
   /**
    * Verifica si existe un pasaporte con el número especificado.
    *
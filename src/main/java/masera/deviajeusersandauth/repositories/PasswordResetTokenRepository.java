@@ -1,9 +1,14 @@
 package masera.deviajeusersandauth.repositories;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import masera.deviajeusersandauth.entities.PasswordResetTokenEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repositorio para gestionar los tokens de restablecimiento de contraseña.
@@ -27,4 +32,32 @@ public interface PasswordResetTokenRepository extends
    * @param userId el ID del usuario cuyos tokens se desean eliminar
    */
   void deleteByUserId(Integer userId);
+
+  /**
+   * Elimina un bloque de tokens expirados en su propia transacción, para no retener
+   * bloqueos sobre muchas filas a la vez. Recorre solo el rango del índice de expiry_date.
+   *
+   * @param now la fecha y hora actual.
+   * @param limit cantidad máxima de filas a eliminar.
+   * @return la cantidad de filas eliminadas.
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM password_reset_tokens WHERE expiry_date < :now LIMIT :limit",
+          nativeQuery = true)
+  int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+  /**
+   * Elimina un bloque de tokens ya utilizados en su propia transacción. Se separa de
+   * la eliminación por expiración porque un OR entre ambas condiciones impide usar
+   * los índices y recorre la tabla completa en cada bloque.
+   *
+   * @param limit cantidad máxima de filas a eliminar.
+   * @return la cantidad de filas eliminadas.
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM password_reset_tokens WHERE used = TRUE LIMIT :limit",
+          nativeQuery = true)
+  int deleteUsed(@Param("limit") int limit);
 }
\ No newline at end of file
@@ -1,11 +1,19 @@
 package masera.deviajeusersandauth.repositories;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import masera.deviajeusersandauth.entities.RefreshTokenEntity;
 import masera.deviajeusersandauth.entities.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 
 /**
@@ -15,12 +23,12 @@ import org.springframework.stereotype.Repository;
 public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Integer> {
 
   /**
-   * Busca un token de refresco por su valor.
+   * Busca un token de refresco por el digest de su valor.
    *
-   * @param token el token a buscar.
+   * @param tokenHash el digest SHA-256 del token.
    * @return un {@link RefreshTokenEntity}
    */
-  Optional<RefreshTokenEntity> findByToken(String token);
+  Optional<RefreshTokenEntity> findByTokenHash(byte[] tokenHash);
 
   /**
    *  Elimina todos los tokens de refresco asociados a un usuario.
@@ -32,4 +40,62 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity
   int deleteByUser(UserEntity user);
   //@Modifying indica que el metodo realiza una operación de modificación en la base de datos
   //sin la anotación @Modifying, Spring Data JPA asume que el metodo es de solo lectura
+
+  /**
+   * Marca un token como rotado, solo si todavía era el vigente de su familia.
+   *
+   * @param tokenHash el digest SHA-256 del token.
+   * @param rotatedAt el momento de la rotación.
+   * @param updatedAt la fecha de actualización.
+   * @return 1 si se marcó, 0 si otra solicitud ya lo había rotado.
+   */
+  @Modifying
+  @Query("UPDATE RefreshTokenEntity r SET r.rotatedAt = :rotatedAt, "
+          + "r.lastUpdatedDatetime = :updatedAt "
+          + "WHERE r.tokenHash = :tokenHash AND r.rotatedAt IS NULL")
+  int markRotated(@Param("tokenHash") byte[] tokenHash,
+                  @Param("rotatedAt") Instant rotatedAt,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+
+  /**
+   * Elimina todos los tokens de una familia.
+   *
+   * @param familyId el id de la familia.
+   * @return la cantidad de tokens eliminados.
+   */
+  @Modifying
+  @Query("DELETE FROM RefreshTokenEntity r WHERE r.familyId = :familyId")
+  int deleteByFamilyId(@Param("familyId") UUID familyId);
+
+  /**
+   * Elimina los tokens de refresco de varios usuarios en una sola sentencia.
+   *
+   * @param userIds los ids de los usuarios.
+   * @return la cantidad de tokens eliminados.
+   */
+  @Modifying
+  @Query("DELETE FROM RefreshTokenEntity r WHERE r.user.id IN :userIds")
+  int deleteByUserIds(@Param("userIds") Collection<Integer> userIds);
+
+  /**
+   * Busca los tokens de refresco que aún no expiraron.
+   *
+   * @param now el instante actual.
+   * @return una lista de {@link RefreshTokenEntity}
+   */
+  List<RefreshTokenEntity> findAllByExpiryDateAfter(Instant now);
+
+  /**
+   * Elimina un bloque de tokens de refresco expirados en su propia transacción,
+   * para no retener bloqueos sobre muchas filas a la vez.
+   *
+   * @param now el instante actual.
+   * @param limit cantidad máxima de filas a eliminar.
+   * @return la cantidad de filas eliminadas.
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM refresh_tokens WHERE expiry_date < :now LIMIT :limit",
+          nativeQuery = true)
+  int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
 }
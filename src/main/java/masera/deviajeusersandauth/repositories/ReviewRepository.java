@@ -1,7 +1,12 @@
 package masera.deviajeusersandauth.repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import masera.deviajeusersandauth.entities.ReviewEntity;
+import masera.deviajeusersandauth.repositories.projections.ReviewRatingCount;
+import masera.deviajeusersandauth.repositories.projections.ReviewSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,37 +19,56 @@ import org.springframework.stereotype.Repository;
 public interface ReviewRepository extends JpaRepository<ReviewEntity, Long> {
 
   /**
-   * Obtiene todas las reviews ordenadas por fecha de creación descendente.
+   * Proyección de una review con su autor, compartida por las consultas de lectura.
    */
-  List<ReviewEntity> findAllByOrderByCreatedDatetimeDesc();
+  String SUMMARY = "new masera.deviajeusersandauth.repositories.projections.ReviewSummary("
+          + "r.id, u.id, u.username, u.firstName, u.lastName, r.rating, r.comment, "
+          + "r.category, r.createdDatetime, r.lastUpdatedDatetime) "
+          + "FROM ReviewEntity r JOIN r.user u";
 
   /**
-   * Obtiene reviews por categoría.
+   * Obtiene una página de reviews, de la más nueva a la más vieja, con los datos de
+   * su autor. Pagina por clave (keyset) sobre (created_datetime, id): la página
+   * siguiente empieza después de la última review devuelta, usando los índices
+   * idx_reviews_created_id o idx_reviews_category_created_id sin recorrer las
+   * páginas anteriores.
+   *
+   * @param category categoría a filtrar, o null para todas.
+   * @param afterCreated fecha de creación de la última review de la página anterior,
+   *                     o null para la primera página.
+   * @param afterId id de la última review de la página anterior.
+   * @param limit cantidad máxima de reviews.
+   * @return una lista de {@link ReviewSummary}
    */
-  List<ReviewEntity> findByCategoryOrderByCreatedDatetimeDesc(
-          ReviewEntity.ReviewCategory category);
+  @Query("SELECT " + SUMMARY + " WHERE (:category IS NULL OR r.category = :category) "
+          + "AND (:afterCreated IS NULL OR r.createdDatetime < :afterCreated "
+          + "OR (r.createdDatetime = :afterCreated AND r.id < :afterId)) "
+          + "ORDER BY r.createdDatetime DESC, r.id DESC")
+  List<ReviewSummary> findPage(@Param("category") ReviewEntity.ReviewCategory category,
+                               @Param("afterCreated") LocalDateTime afterCreated,
+                               @Param("afterId") Long afterId,
+                               Limit limit);
 
   /**
-   * Obtiene reviews por usuario.
+   * Obtiene las reviews de un usuario con los datos de su autor, sin cargar entidades.
    */
-  List<ReviewEntity> findByUserIdOrderByCreatedDatetimeDesc(Integer userId);
+  @Query("SELECT " + SUMMARY + " WHERE u.id = :userId ORDER BY r.createdDatetime DESC")
+  List<ReviewSummary> findSummariesByUserId(@Param("userId") Integer userId);
 
   /**
-   * Calcula el rating promedio de todas las reviews.
+   * Obtiene una review con los datos de su autor, sin cargar entidades.
    */
-  @Query("SELECT AVG(r.rating) FROM ReviewEntity r")
-  Double calculateAverageRating();
+  @Query("SELECT " + SUMMARY + " WHERE r.id = :id")
+  Optional<ReviewSummary> findSummaryById(@Param("id") Long id);
 
   /**
-   * Calcula el rating promedio por categoría.
+   * Cuenta las reviews por categoría y rating recorriendo la tabla. Es el recuento
+   * con el que {@code ReviewStatsReconcileJob} corrige los contadores de review_stats;
+   * las estadísticas también lo usan cuando los contadores no están disponibles.
+   *
+   * @return una lista de {@link ReviewRatingCount}, solo de las combinaciones con reviews.
    */
-  @Query("SELECT AVG(r.rating) FROM ReviewEntity r WHERE r.category = :category")
-  Double calculateAverageRatingByCategory(
-          @Param("category") ReviewEntity.ReviewCategory category);
-
-  /**
-   * Cuenta el total de reviews.
-   */
-  @Query("SELECT COUNT(r) FROM ReviewEntity r")
-  Long countAllReviews();
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.ReviewRatingCount("
+          + "r.category, r.rating, COUNT(r)) FROM ReviewEntity r GROUP BY r.category, r.rating")
+  List<ReviewRatingCount> countByCategoryAndRating();
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package masera.deviajeusersandauth.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import masera.deviajeusersandauth.entities.ReviewResponseEntity;
+import masera.deviajeusersandauth.repositories.projections.ReviewResponseCount;
+import masera.deviajeusersandauth.repositories.projections.ReviewResponseSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -17,9 +22,45 @@ public interface ReviewResponseRepository extends JpaRepository<ReviewResponseEn
   List<ReviewResponseEntity> findByReviewIdOrderByCreatedDatetimeAsc(Long reviewId);
 
   /**
-   * Obtiene todas las respuestas de un usuario.
+   * Obtiene las respuestas de varias reviews con los datos de su autor en una sola
+   * consulta, sin cargar entidades.
    */
-  List<ReviewResponseEntity> findByUserIdOrderByCreatedDatetimeDesc(Integer userId);
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.ReviewResponseSummary("
+          + "rr.id, rr.review.id, u.id, u.username, u.firstName, u.lastName, rr.comment, "
+          + "rr.createdDatetime, rr.lastUpdatedDatetime) FROM ReviewResponseEntity rr "
+          + "JOIN rr.user u WHERE rr.review.id IN :reviewIds ORDER BY rr.createdDatetime, rr.id")
+  List<ReviewResponseSummary> findSummariesByReviewIdIn(Collection<Long> reviewIds);
+
+  /**
+   * Obtiene solo las primeras respuestas (por fecha de creación) de cada review,
+   * numerándolas por review con una función de ventana.
+   *
+   * @param reviewIds los ids de las reviews.
+   * @param limit cantidad máxima de respuestas por review.
+   * @return una lista de {@link ReviewResponseSummary}
+   */
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.ReviewResponseSummary("
+          + "x.id, x.reviewId, x.userId, x.username, x.firstName, x.lastName, x.comment, "
+          + "x.created, x.updated) FROM (SELECT rr.id AS id, rr.review.id AS reviewId, "
+          + "u.id AS userId, u.username AS username, u.firstName AS firstName, "
+          + "u.lastName AS lastName, rr.comment AS comment, rr.createdDatetime AS created, "
+          + "rr.lastUpdatedDatetime AS updated, ROW_NUMBER() OVER (PARTITION BY rr.review.id "
+          + "ORDER BY rr.createdDatetime, rr.id) AS position FROM ReviewResponseEntity rr "
+          + "JOIN rr.user u WHERE rr.review.id IN :reviewIds) x "
+          + "WHERE x.position <= :limit ORDER BY x.created, x.id")
+  List<ReviewResponseSummary> findFirstSummariesByReviewIdIn(
+          @Param("reviewIds") Collection<Long> reviewIds, @Param("limit") int limit);
+
+  /**
+   * Cuenta las respuestas de varias reviews en una sola consulta.
+   *
+   * @param reviewIds los ids de las reviews.
+   * @return la cantidad por review, solo de las que tienen respuestas.
+   */
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.ReviewResponseCount("
+          + "rr.review.id, COUNT(rr)) FROM ReviewResponseEntity rr "
+          + "WHERE rr.review.id IN :reviewIds GROUP BY rr.review.id")
+  List<ReviewResponseCount> countByReviewIdIn(@Param("reviewIds") Collection<Long> reviewIds);
 
   /**
    * Elimina todas las respuestas de una review (útil cuando se borra una review).
@@ -0,0 +1,69 @@
+package masera.deviajeusersandauth.repositories;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import masera.deviajeusersandauth.entities.ReviewStatEntity;
+import masera.deviajeusersandauth.repositories.projections.ReviewRatingCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio de los contadores de reviews por categoría y rating.
+ */
+@Repository
+public interface ReviewStatRepository extends JpaRepository<ReviewStatEntity, Long> {
+
+  /**
+   * Suma una cantidad al contador de una categoría y rating, creándolo si no existe.
+   * El incremento lo resuelve la base de datos, así dos altas concurrentes no se pisan.
+   *
+   * @param category la categoría.
+   * @param rating el rating.
+   * @param delta la cantidad a sumar, negativa al eliminar.
+   * @return la cantidad de filas afectadas.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO review_stats (category, rating, review_count) "
+          + "VALUES (:category, :rating, :delta) "
+          + "ON DUPLICATE KEY UPDATE review_count = review_count + :delta", nativeQuery = true)
+  int increment(@Param("category") String category, @Param("rating") int rating,
+                @Param("delta") long delta);
+
+  /**
+   * Reemplaza el valor del contador de una categoría y rating, creándolo si no existe.
+   *
+   * @param category la categoría.
+   * @param rating el rating.
+   * @param count la cantidad de reviews.
+   * @return la cantidad de filas afectadas.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO review_stats (category, rating, review_count) "
+          + "VALUES (:category, :rating, :count) "
+          + "ON DUPLICATE KEY UPDATE review_count = :count", nativeQuery = true)
+  int overwrite(@Param("category") String category, @Param("rating") int rating,
+                @Param("count") long count);
+
+  /**
+   * Obtiene todos los contadores.
+   *
+   * @return una lista de {@link ReviewRatingCount}
+   */
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.ReviewRatingCount("
+          + "s.category, s.rating, s.reviewCount) FROM ReviewStatEntity s")
+  List<ReviewRatingCount> findAllCounts();
+
+  /**
+   * Obtiene todos los contadores bloqueándolos hasta el fin de la transacción, para que
+   * ninguna alta o baja los modifique mientras se recalculan.
+   *
+   * @return una lista de {@link ReviewStatEntity}
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT s FROM ReviewStatEntity s")
+  List<ReviewStatEntity> lockAll();
+}
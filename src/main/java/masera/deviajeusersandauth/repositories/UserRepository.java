@@ -1,12 +1,21 @@
 package masera.deviajeusersandauth.repositories;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import masera.deviajeusersandauth.entities.UserEntity;
+import masera.deviajeusersandauth.repositories.projections.UserSummary;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Conecta la aplicación con la base de datos para manejar usuarios.
@@ -14,6 +23,11 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Integer> {
 
+  /**
+   * Cantidad de filas que el driver trae por vez al recorrer tablas con un cursor.
+   */
+  int EXPORT_FETCH_SIZE = 500;
+
   /**
    * Busca un usuario por su nombre de usuario.
    *
@@ -56,15 +70,125 @@ public interface UserRepository extends JpaRepository<UserEntity, Integer> {
   Optional<UserEntity> findByIdWithRoles(Integer id);
 
   /**
-   * Busca una lista de usuarios por el rol.
+   * Busca las columnas públicas de un usuario por su id, sin cargar la entidad.
+   *
+   * @param id el identificador de un usuario.
+   * @return un {@link UserSummary}
+   */
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.UserSummary(u.id, "
+          + "u.username, u.email, u.firstName, u.lastName, u.gender, u.countryCallingCode, "
+          + "u.phone, u.birthDate, u.active, u.avatarUrl) FROM UserEntity u WHERE u.id = :id")
+  Optional<UserSummary> findSummaryById(@Param("id") Integer id);
+
+  /**
+   * Busca las columnas públicas de un usuario por su nombre de usuario, sin cargar la entidad.
+   *
+   * @param username el nombre de usuario.
+   * @return un {@link UserSummary}
+   */
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.UserSummary(u.id, "
+          + "u.username, u.email, u.firstName, u.lastName, u.gender, u.countryCallingCode, "
+          + "u.phone, u.birthDate, u.active, u.avatarUrl) FROM UserEntity u "
+          + "WHERE u.username = :username")
+  Optional<UserSummary> findSummaryByUsername(@Param("username") String username);
+
+  /**
+   * Busca una lista de usuarios por el rol. No trae los roles: un JOIN FETCH filtrado
+   * por rol dejaría la colección incompleta, se cargan aparte para todos los usuarios.
    *
    * @param roleName el nombre del rol.
    * @return una lista de {@link UserEntity}
    */
-  @Query("SELECT DISTINCT u FROM UserEntity u JOIN FETCH u.userRoles ur "
-          + "JOIN FETCH ur.role r WHERE r.description = :roleName")
+  @Query("SELECT u FROM UserEntity u LEFT JOIN FETCH u.userMembership "
+          + "WHERE EXISTS (SELECT 1 FROM UserRoleEntity ur "
+          + "WHERE ur.user = u AND ur.role.description = :roleName) ORDER BY u.id")
   List<UserEntity> findAllByRoleName(String roleName);
 
-  @Query("SELECT u FROM UserEntity u JOIN FETCH u.userRoles ur JOIN FETCH ur.role WHERE u.username = :username")
+  /**
+   * Busca la página de usuarios siguiente a un id (paginación keyset), ordenada por id.
+   * Los filtros en null no se aplican. Recorre el índice de la clave primaria desde
+   * el cursor, por lo que el costo no crece con el número de página.
+   *
+   * @param afterId el id del último usuario de la página anterior (0 para la primera).
+   * @param active filtra por usuarios activos o inactivos.
+   * @param role filtra por el nombre de un rol.
+   * @param createdFrom fecha de creación mínima (inclusive).
+   * @param createdTo fecha de creación máxima (exclusive).
+   * @param limit cantidad máxima de usuarios.
+   * @return una lista de {@link UserEntity}
+   */
+  @Query("SELECT u FROM UserEntity u LEFT JOIN FETCH u.userMembership WHERE u.id > :afterId "
+          + "AND (:active IS NULL OR u.active = :active) "
+          + "AND (:createdFrom IS NULL OR u.createdDatetime >= :createdFrom) "
+          + "AND (:createdTo IS NULL OR u.createdDatetime < :createdTo) "
+          + "AND (:role IS NULL OR EXISTS (SELECT 1 FROM UserRoleEntity ur "
+          + "WHERE ur.user = u AND ur.role.description = :role)) "
+          + "ORDER BY u.id")
+  List<UserEntity> findPageAfter(@Param("afterId") Integer afterId,
+                                 @Param("active") Boolean active,
+                                 @Param("role") String role,
+                                 @Param("createdFrom") LocalDateTime createdFrom,
+                                 @Param("createdTo") LocalDateTime createdTo,
+                                 Limit limit);
+
+  /**
+   * Recorre todos los usuarios ordenados por id con un cursor de solo avance.
+   * El driver trae las filas de a {@link #EXPORT_FETCH_SIZE} y las entidades se cargan
+   * como de solo lectura. Debe consumirse dentro de una transacción y cerrarse al terminar.
+   *
+   * @return un {@link Stream} de {@link UserEntity}
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT u FROM UserEntity u LEFT JOIN FETCH u.userMembership ORDER BY u.id")
+  Stream<UserEntity> streamAllForExport();
+
+  /**
+   * Recorre los nombres de usuario con un cursor de solo avance.
+   *
+   * @return un {@link Stream} con los nombres de usuario.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+  @Query("SELECT u.username FROM UserEntity u")
+  Stream<String> streamAllUsernames();
+
+  /**
+   * Recorre los emails con un cursor de solo avance.
+   *
+   * @return un {@link Stream} con los emails.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+  @Query("SELECT u.email FROM UserEntity u")
+  Stream<String> streamAllEmails();
+
+  /**
+   * Busca un usuario por su nombre de usuario y lo carga junto con sus roles y su membresía
+   * en una sola consulta (la membresía es el lado inverso de un one-to-one y, si no se
+   * incluye, Hibernate la busca con una consulta adicional).
+   *
+   * @param username el nombre de usuario.
+   * @return un {@link UserEntity}
+   */
+  @Query("SELECT u FROM UserEntity u JOIN FETCH u.userRoles ur JOIN FETCH ur.role "
+          + "LEFT JOIN FETCH u.userMembership WHERE u.username = :username")
   Optional<UserEntity> findByUsernameWithRoles(@Param("username") String username);
+
+  /**
+   * Reemplaza el hash de la contraseña solo si no cambió desde que se leyó,
+   * para no pisar un cambio de contraseña concurrente.
+   *
+   * @param id el identificador del usuario.
+   * @param currentPassword el hash leído previamente.
+   * @param newPassword el nuevo hash.
+   * @return la cantidad de filas actualizadas (0 si la contraseña ya había cambiado).
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE UserEntity u SET u.password = :newPassword "
+          + "WHERE u.id = :id AND u.password = :currentPassword")
+  int updatePasswordIfUnchanged(@Param("id") Integer id,
+                                @Param("currentPassword") String currentPassword,
+                                @Param("newPassword") String newPassword);
 }
@@ -1,12 +1,13 @@
 package masera.deviajeusersandauth.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import masera.deviajeusersandauth.entities.UserEntity;
 import masera.deviajeusersandauth.entities.UserRoleEntity;
+import masera.deviajeusersandauth.repositories.projections.UserRoleName;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
-import java.util.List;
-
 /**
  * Conecta la aplicación con la base de datos para manejar los roles de los usuarios.
  */
@@ -35,4 +36,15 @@ public interface UserRoleRepository extends JpaRepository<UserRoleEntity, Intege
    */
   @Query("SELECT ur FROM UserRoleEntity ur JOIN FETCH ur.role WHERE ur.user.id = :userId")
   List<UserRoleEntity> findByUserIdWithRole(Integer userId);
+
+  /**
+   * Busca los nombres de los roles de varios usuarios en una sola consulta.
+   *
+   * @param userIds los identificadores de los usuarios.
+   * @return una lista de {@link UserRoleName}
+   */
+  @Query("SELECT new masera.deviajeusersandauth.repositories.projections.UserRoleName("
+          + "ur.user.id, r.description) FROM UserRoleEntity ur JOIN ur.role r "
+          + "WHERE ur.user.id IN :userIds")
+  List<UserRoleName> findRoleNamesByUserIdIn(Collection<Integer> userIds);
 }
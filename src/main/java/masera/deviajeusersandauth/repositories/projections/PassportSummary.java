@@ -0,0 +1,11 @@
+package masera.deviajeusersandauth.repositories.projections;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección con las columnas de un pasaporte que se exponen en
+ * {@link masera.deviajeusersandauth.dtos.get.PassportDto}.
+ */
+public record PassportSummary(Integer userId, Integer id, String passportNumber,
+                              LocalDate expiryDate, String issuanceCountry, String nationality) {
+}
@@ -0,0 +1,10 @@
+package masera.deviajeusersandauth.repositories.projections;
+
+import masera.deviajeusersandauth.entities.ReviewEntity;
+
+/**
+ * Cantidad de reviews de una categoría con un rating dado.
+ */
+public record ReviewRatingCount(ReviewEntity.ReviewCategory category, Integer rating,
+                                Long count) {
+}
@@ -0,0 +1,7 @@
+package masera.deviajeusersandauth.repositories.projections;
+
+/**
+ * Cantidad de respuestas de una review.
+ */
+public record ReviewResponseCount(Long reviewId, Long count) {
+}
@@ -0,0 +1,12 @@
+package masera.deviajeusersandauth.repositories.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de una respuesta a una review junto con los datos públicos de su autor.
+ */
+public record ReviewResponseSummary(Long id, Long reviewId, Integer userId, String username,
+                                    String userFirstName, String userLastName, String comment,
+                                    LocalDateTime createdDatetime,
+                                    LocalDateTime lastUpdatedDatetime) {
+}
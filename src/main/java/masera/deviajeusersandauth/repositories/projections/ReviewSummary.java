@@ -0,0 +1,13 @@
+package masera.deviajeusersandauth.repositories.projections;
+
+import java.time.LocalDateTime;
+import masera.deviajeusersandauth.entities.ReviewEntity;
+
+/**
+ * Proyección de una review junto con los datos públicos de su autor.
+ */
+public record ReviewSummary(Long id, Integer userId, String username, String userFirstName,
+                            String userLastName, Integer rating, String comment,
+                            ReviewEntity.ReviewCategory category,
+                            LocalDateTime createdDatetime, LocalDateTime lastUpdatedDatetime) {
+}
@@ -0,0 +1,7 @@
+package masera.deviajeusersandauth.repositories.projections;
+
+/**
+ * Proyección del nombre de un rol asignado a un usuario.
+ */
+public record UserRoleName(Integer userId, String role) {
+}
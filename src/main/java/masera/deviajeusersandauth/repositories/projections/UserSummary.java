@@ -0,0 +1,27 @@
+package masera.deviajeusersandauth.repositories.projections;
+
+import java.time.LocalDate;
+import masera.deviajeusersandauth.entities.UserEntity;
+
+/**
+ * Proyección con las columnas de un usuario que se exponen en
+ * {@link masera.deviajeusersandauth.dtos.get.UserDto}.
+ * No incluye la contraseña, los datos de auditoría ni las relaciones.
+ */
+public record UserSummary(Integer id, String username, String email, String firstName,
+                          String lastName, String gender, String countryCallingCode,
+                          String phone, LocalDate birthDate, Boolean active, String avatarUrl) {
+
+  /**
+   * Crea la proyección a partir de un usuario ya cargado.
+   *
+   * @param user el usuario.
+   * @return la proyección.
+   */
+  public static UserSummary of(UserEntity user) {
+    return new UserSummary(user.getId(), user.getUsername(), user.getEmail(),
+            user.getFirstName(), user.getLastName(), user.getGender(),
+            user.getCountryCallingCode(), user.getPhone(), user.getBirthDate(),
+            user.getActive(), user.getAvatarUrl());
+  }
+}
@@ -0,0 +1,55 @@
+package masera.deviajeusersandauth.security.crypto;
+
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Calcula el costo (strength) de BCrypt para que un hasheo tarde aproximadamente
+ * el tiempo objetivo en el hardware actual.
+ * Cada punto de costo duplica el tiempo, por lo que basta con medir el costo mínimo
+ * y escalar en potencias de dos.
+ */
+public final class BcryptStrengthCalibrator {
+
+  private static final Logger logger = LoggerFactory.getLogger(BcryptStrengthCalibrator.class);
+
+  private static final int MAX_STRENGTH = 31;
+
+  private static final int SAMPLES = 3;
+
+  private BcryptStrengthCalibrator() {
+  }
+
+  /**
+   * Metodo que mide el hardware y devuelve el costo a utilizar.
+   *
+   * @param target tiempo objetivo de un hasheo.
+   * @param minStrength costo mínimo permitido, aunque el hardware sea lento.
+   * @return el costo calibrado, nunca menor que minStrength.
+   */
+  public static int calibrate(Duration target, int minStrength) {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+    // La primera ejecución incluye la carga de clases y el JIT, no se mide
+    encoder.encode("calibracion");
+
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      encoder.encode("calibracion");
+      best = Math.min(best, System.nanoTime() - start);
+    }
+
+    int strength = minStrength;
+    long estimated = best;
+    while (strength < MAX_STRENGTH && estimated * 2 <= target.toNanos()) {
+      estimated *= 2;
+      strength++;
+    }
+
+    logger.info("Costo de BCrypt calibrado en {} (~{} ms por hash, objetivo {} ms)",
+            strength, Duration.ofNanos(estimated).toMillis(), target.toMillis());
+    return strength;
+  }
+}
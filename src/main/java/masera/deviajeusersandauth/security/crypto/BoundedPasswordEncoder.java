@@ -0,0 +1,56 @@
+package masera.deviajeusersandauth.security.crypto;
+
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder que ejecuta el hasheo y la comparación de contraseñas en el
+ * pool dedicado, de modo que ningún flujo (login, registro, cambio de contraseña)
+ * consuma CPU de BCrypt en los hilos de Tomcat.
+ * Las variantes asíncronas además liberan al hilo que las pide mientras se hashea.
+ */
+@RequiredArgsConstructor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+
+  private final PasswordHashingExecutor hashingExecutor;
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return hashingExecutor.hash(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return hashingExecutor.hash(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Hashea la contraseña en el pool sin bloquear al hilo que la pide.
+   *
+   * @param rawPassword la contraseña en texto plano.
+   * @return un futuro con el hash.
+   */
+  public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+    return hashingExecutor.hashAsync(() -> delegate.encode(rawPassword));
+  }
+
+  /**
+   * Compara la contraseña con el hash en el pool sin bloquear al hilo que la pide.
+   *
+   * @param rawPassword la contraseña en texto plano.
+   * @param encodedPassword el hash guardado.
+   * @return un futuro que indica si la contraseña coincide.
+   */
+  public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword,
+                                                 String encodedPassword) {
+    return hashingExecutor.hashAsync(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
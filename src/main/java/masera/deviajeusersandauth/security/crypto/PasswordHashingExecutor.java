@@ -0,0 +1,191 @@
+package masera.deviajeusersandauth.security.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import masera.deviajeusersandauth.exceptions.ServiceOverloadedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool de hilos dedicado al hasheo de contraseñas.
+ * BCrypt consume CPU de forma intensiva, por lo que el pool tiene tantos hilos
+ * como núcleos y una cola acotada: cuando la cola se llena las solicitudes se
+ * rechazan de inmediato con un 503 en lugar de acumular hilos de Tomcat bloqueados.
+ * En el pool solo corre el hasheo o la comparación: lo que se encadena al resultado
+ * (guardar el hash, emitir los tokens) continúa en un segundo pool propio, para que
+ * la latencia de la base de datos no ocupe los hilos reservados a BCrypt ni compita
+ * con otras tareas asíncronas. Ese pool también tiene una cola acotada: si está
+ * lleno, el futuro se completa con {@link ServiceOverloadedException} (503) en lugar
+ * de correr el trabajo en el hilo de hasheo o de quedar sin completarse.
+ */
+@Component
+public class PasswordHashingExecutor implements DisposableBean {
+
+  /**
+   * Marca los hilos del pool para que un hasheo pedido desde una tarea que ya
+   * corre en el pool se ejecute en el mismo hilo y no se encole (evita bloqueos).
+   */
+  private static final ThreadLocal<Boolean> HASHING_THREAD = ThreadLocal.withInitial(() -> false);
+
+  private final ThreadPoolExecutor executor;
+
+  private final ThreadPoolExecutor continuationPool;
+
+  private final Executor continuations;
+
+  private final Timer queueWait;
+
+  private final Timer hashTime;
+
+  private final Counter rejected;
+
+  /**
+   * Constructor del pool.
+   *
+   * @param threads cantidad de hilos; 0 usa la cantidad de núcleos disponibles.
+   * @param queueCapacity cantidad máxima de tareas en espera.
+   * @param continuationThreads hilos donde continúa el trabajo que espera un hash.
+   * @param continuationQueueCapacity cantidad máxima de continuaciones en espera.
+   * @param meterRegistry registro de métricas.
+   */
+  public PasswordHashingExecutor(@Value("${deviaje.app.hashing.threads:0}") int threads,
+                                 @Value("${deviaje.app.hashing.queueCapacity:100}")
+                                 int queueCapacity,
+                                 @Value("${deviaje.app.hashing.continuationThreads:8}")
+                                 int continuationThreads,
+                                 @Value("${deviaje.app.hashing.continuationQueueCapacity:200}")
+                                 int continuationQueueCapacity,
+                                 MeterRegistry meterRegistry) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(() -> {
+                HASHING_THREAD.set(true);
+                runnable.run();
+              }, "password-hashing-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    AtomicInteger continuationNumber = new AtomicInteger();
+    ThreadFactory continuationThreadFactory = runnable -> {
+      Thread thread = new Thread(runnable,
+              "password-continuation-" + continuationNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.continuationPool = new ThreadPoolExecutor(continuationThreads, continuationThreads,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(continuationQueueCapacity),
+            continuationThreadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+    this.queueWait = Timer.builder("deviaje.password.hashing.queue.wait")
+            .description("Tiempo de espera en cola antes de hashear")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.hashTime = Timer.builder("deviaje.password.hashing.duration")
+            .description("Tiempo de cada operación de hasheo o comparación")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.rejected = Counter.builder("deviaje.password.hashing.rejected")
+            .description("Tareas rechazadas por el pool saturado")
+            .tag("pool", "hashing")
+            .register(meterRegistry);
+    Counter continuationsRejected = Counter.builder("deviaje.password.hashing.rejected")
+            .description("Tareas rechazadas por el pool saturado")
+            .tag("pool", "continuations")
+            .register(meterRegistry);
+    // CompletableFuture completa la etapa dependiente con la excepción que lanza execute
+    this.continuations = task -> {
+      try {
+        continuationPool.execute(task);
+      } catch (RejectedExecutionException e) {
+        continuationsRejected.increment();
+        throw overloaded();
+      }
+    };
+    new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+    new ExecutorServiceMetrics(continuationPool, "password.continuations", Tags.empty())
+            .bindTo(meterRegistry);
+  }
+
+  /**
+   * Ejecuta una operación de hasheo en el pool sin bloquear al hilo que la pide.
+   * La operación debe ser solo el hasheo o la comparación; las etapas que se
+   * encadenen al futuro corren en el pool de continuaciones.
+   *
+   * @param operation la operación de hasheo.
+   * @param <T> el tipo del resultado.
+   * @return un futuro con el resultado de la operación; se completa con
+   *         {@link ServiceOverloadedException} si el pool de continuaciones está lleno.
+   * @throws ServiceOverloadedException si el pool de hasheo y su cola están llenos.
+   */
+  public <T> CompletableFuture<T> hashAsync(Supplier<T> operation) {
+    return submit(operation).thenApplyAsync(Function.identity(), continuations);
+  }
+
+  /**
+   * Ejecuta una operación de hasheo en el pool y espera su resultado.
+   * Si se invoca desde un hilo del pool se ejecuta directamente.
+   *
+   * @param operation la operación de hasheo.
+   * @param <T> el tipo del resultado.
+   * @return el resultado de la operación.
+   * @throws ServiceOverloadedException si el pool y su cola están llenos.
+   */
+  public <T> T hash(Supplier<T> operation) {
+    if (HASHING_THREAD.get()) {
+      return hashTime.record(operation);
+    }
+    try {
+      return submit(operation).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+    long enqueuedAt = System.nanoTime();
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+        return hashTime.record(operation);
+      }, executor);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw overloaded();
+    }
+  }
+
+  private static ServiceOverloadedException overloaded() {
+    return new ServiceOverloadedException(
+            "El servicio está procesando demasiadas solicitudes, intente nuevamente");
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    continuationPool.shutdown();
+    continuationPool.awaitTermination(10, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,59 @@
+package masera.deviajeusersandauth.security.crypto;
+
+import lombok.RequiredArgsConstructor;
+import masera.deviajeusersandauth.events.UserChangedEvent;
+import masera.deviajeusersandauth.exceptions.ServiceOverloadedException;
+import masera.deviajeusersandauth.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Vuelve a hashear la contraseña de un usuario con el algoritmo y costo actuales
+ * cuando el hash guardado quedó desactualizado.
+ * Se invoca tras un login exitoso (único momento en que se conoce la contraseña)
+ * y trabaja en segundo plano para no demorar la respuesta: el hash se calcula en
+ * el pool dedicado y la actualización se guarda fuera de él.
+ */
+@Component
+@RequiredArgsConstructor
+public class PasswordRehashService {
+
+  private static final Logger logger = LoggerFactory.getLogger(PasswordRehashService.class);
+
+  private final BoundedPasswordEncoder passwordEncoder;
+
+  private final UserRepository userRepository;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Metodo que programa el rehasheo si el hash actual lo requiere.
+   * Si el pool de hasheo está saturado se omite y se reintenta en el próximo login.
+   *
+   * @param userId el id del usuario.
+   * @param currentHash el hash con el que se autenticó el usuario.
+   * @param rawPassword la contraseña en texto plano ya verificada.
+   */
+  public void rehashIfNeeded(Integer userId, String currentHash, String rawPassword) {
+    if (currentHash == null || !passwordEncoder.upgradeEncoding(currentHash)) {
+      return;
+    }
+
+    try {
+      passwordEncoder.encodeAsync(rawPassword)
+              .thenApply(newHash -> userRepository.updatePasswordIfUnchanged(
+                      userId, currentHash, newHash))
+              .whenComplete((updated, error) -> {
+                if (error != null) {
+                  logger.warn("No se pudo actualizar el hash del usuario {}", userId, error);
+                } else if (updated > 0) {
+                  eventPublisher.publishEvent(new UserChangedEvent(userId));
+                }
+              });
+    } catch (ServiceOverloadedException e) {
+      logger.debug("Pool de hasheo saturado, se omite el rehasheo del usuario {}", userId);
+    }
+  }
+}
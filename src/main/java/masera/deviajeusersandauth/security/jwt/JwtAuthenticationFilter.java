@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import masera.deviajeusersandauth.security.jwt.JwtTokenCache.VerifiedToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -30,6 +31,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
    */
   private final JwtUtils jwtUtils;
 
+  /**
+   * Cache de tokens ya verificados, para no repetir la verificación
+   * de la firma en cada solicitud con el mismo token.
+   */
+  private final JwtTokenCache jwtTokenCache;
+
   /**
    * Servicio que carga los detalles del usuario desde la base de datos
    * para la autenticación de Spring Security.
@@ -54,27 +61,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     //Aca se obtiene el token de la cabecera Authorization
     final String authHeader = request.getHeader("Authorization");
 
-    String username = null;
-    String jwt = null;
+    VerifiedToken token = null;
 
     // Validar si existe el token y cumple el formato de token.
     if (authHeader != null && authHeader.startsWith("Bearer ")) {
       // Extraer el token JWT de la cabecera Authorization
-      jwt = authHeader.substring(7);
+      String jwt = authHeader.substring(7);
       try {
-        username = jwtUtils.extractUsername(jwt);
+        // La firma se verifica una sola vez mientras el token esté en cache
+        token = jwtTokenCache.get(jwt, this::verify);
       } catch (Exception e) {
         logger.error("Error al extraer el nombre de usuario del token JWT", e);
       }
     }
 
-    // Si encontramos un username y no hay autenticación en el contexto de Spring Security,
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      //Cargar los detalles del usuario desde la base de datos
-      UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+    // Si encontramos un token válido y no hay autenticación en el contexto de Spring Security,
+    if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+      UserDetails userDetails = null;
+      boolean verified = false;
+
+      // En modo sin estado el principal se arma con las claims firmadas del token,
+      // sin consultar la base de datos.
+      if (jwtUtils.isStateless()) {
+        userDetails = token.principal();
+        verified = userDetails != null && userDetails.isEnabled();
+      }
+
+      if (userDetails == null) {
+        //Cargar los detalles del usuario desde la base de datos
+        userDetails = userDetailsService.loadUserByUsername(token.token().getSubject());
+        verified = jwtUtils.validateToken(token.token(), userDetails);
+      }
 
       // Si el token es válido, configura la autenticación de Spring Security.
-      if (jwtUtils.validateToken(jwt, userDetails)) {
+      if (verified) {
 
         // Crea un objeto de autenticación con los detalles del usuario
         // credenciales(contraseña) en null porque JWT ya valído el usuario
@@ -95,4 +115,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // o al controlador si no hay más filtros
     filterChain.doFilter(request, response);
   }
+
+  /**
+   * Metodo que verifica la firma del token y arma el principal con sus claims.
+   *
+   * @param jwt el token JWT.
+   * @return el token verificado.
+   */
+  private VerifiedToken verify(String jwt) {
+    ParsedToken parsed = jwtUtils.verify(jwt);
+    return new VerifiedToken(parsed, jwtUtils.buildUserDetails(parsed));
+  }
 }
@@ -0,0 +1,118 @@
+package masera.deviajeusersandauth.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.function.Function;
+import masera.deviajeusersandauth.security.services.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache en memoria de tokens JWT ya verificados.
+ * Evita repetir la verificación HMAC y el parseo de claims cuando un cliente
+ * envía el mismo token muchas veces durante su vida útil.
+ * La clave es un digest SHA-256 del token (el token original no se guarda)
+ * y cada entrada vence junto con la expiración del propio token.
+ * Las invalidaciones son locales a cada instancia de la aplicación.
+ */
+@Component
+public class JwtTokenCache {
+
+  private final Cache<String, VerifiedToken> tokens;
+
+  /**
+   * Usuarios dados de baja y el instante de la baja, truncado a segundos como el
+   * iat de los tokens. Los tokens emitidos antes de ese segundo se rechazan.
+   * Se conservan durante la vida máxima de un token.
+   */
+  private final Cache<String, Instant> revokedUsers;
+
+  /**
+   * Constructor del cache.
+   *
+   * @param maxSize cantidad máxima de tokens en cache.
+   * @param jwtExpirationMs vida máxima de un token de acceso en milisegundos.
+   * @param meterRegistry registro de métricas donde se publican aciertos y fallos.
+   */
+  public JwtTokenCache(@Value("${deviaje.app.jwtCacheMaxSize:10000}") long maxSize,
+                       @Value("${deviaje.app.jwtExpirationMs}") long jwtExpirationMs,
+                       MeterRegistry meterRegistry) {
+    this.tokens = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(Expiry.creating((String key, VerifiedToken value) -> {
+              Duration ttl = Duration.between(Instant.now(), value.token().getExpiration());
+              return ttl.isNegative() ? Duration.ZERO : ttl;
+            }))
+            .recordStats()
+            .build();
+    this.revokedUsers = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(jwtExpirationMs))
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, tokens, "jwt.verified.tokens");
+  }
+
+  /**
+   * Devuelve el token verificado desde el cache o lo verifica y lo guarda.
+   *
+   * @param jwt el token JWT tal como llega en la cabecera.
+   * @param verifier función que verifica el token en caso de no estar en cache.
+   * @return el token verificado, o null si pertenece a un usuario dado de baja.
+   */
+  public VerifiedToken get(String jwt, Function<String, VerifiedToken> verifier) {
+    VerifiedToken verified = tokens.get(digest(jwt), key -> verifier.apply(jwt));
+    if (verified == null || isRevoked(verified.token())) {
+      return null;
+    }
+    return verified;
+  }
+
+  /**
+   * Invalida los tokens cacheados de un usuario y rechaza los que se hayan emitido
+   * antes de este momento. El iat tiene precisión de segundos: un token emitido en
+   * el mismo segundo que la baja se acepta, para no rechazar el login que sigue a
+   * un cambio de contraseña.
+   *
+   * @param username el nombre de usuario.
+   */
+  public void invalidateUser(String username) {
+    revokedUsers.put(username, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    tokens.asMap().values().removeIf(value -> username.equals(value.token().getSubject()));
+  }
+
+  private boolean isRevoked(ParsedToken token) {
+    Instant revokedAt = revokedUsers.getIfPresent(token.getSubject());
+    return revokedAt != null
+            && (token.getIssuedAt() == null || token.getIssuedAt().isBefore(revokedAt));
+  }
+
+  private static String digest(String jwt) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(
+              sha256.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 no disponible", e);
+    }
+  }
+
+  /**
+   * Token verificado junto con el principal armado a partir de sus claims.
+   *
+   * @param token el token verificado.
+   * @param principal el principal construido con las claims, o null si el
+   *     token no contiene las claims necesarias.
+   */
+  public record VerifiedToken(ParsedToken token, UserDetailsImpl principal) {
+  }
+}
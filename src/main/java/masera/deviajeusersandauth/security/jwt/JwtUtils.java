@@ -1,40 +1,94 @@
 package masera.deviajeusersandauth.security.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import javax.crypto.SecretKey;
+import masera.deviajeusersandauth.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 /**
  * Clase para el manejo de JWT(JSON Web Tokens).
  * Se utiliza para generar, validar y extraer información de los tokens JWT.
+ * La clave de firma y el parser se construyen una sola vez al iniciar y son
+ * seguros para usarse desde varios hilos.
  */
 @Component
 public class JwtUtils {
 
-  @Value("${deviaje.app.jwtSecret}")
-  private String secret;
+  /**
+   * Claim que contiene el id del usuario.
+   */
+  public static final String CLAIM_USER_ID = "id";
+
+  /**
+   * Claim que contiene los roles del usuario.
+   */
+  public static final String CLAIM_ROLES = "roles";
+
+  /**
+   * Claim que indica si el usuario está activo.
+   */
+  public static final String CLAIM_ACTIVE = "active";
+
+  private final long expirationMs;
 
-  @Value("${deviaje.app.jwtExpirationMs}")
-  private long expirationMs;
+  /**
+   * Indica si la autenticación se resuelve solo con las claims del token (true)
+   * o cargando el usuario desde la base de datos en cada solicitud (false).
+   */
+  private final boolean stateless;
+
+  /**
+   * Clave de firma (signing key) derivada de la clave secreta.
+   */
+  private final SecretKey signingKey;
 
   /**
-   * Metodo que genera la clave de firma (signing key) a partir de la clave secreta.
+   * Parser inmutable que verifica la firma con la clave de firma.
+   */
+  private final JwtParser jwtParser;
+
+  /**
+   * Constructor que deriva la clave de firma y arma el parser una única vez.
    *
-   * @return la clave de firma (signing key).
+   * @param secret la clave secreta.
+   * @param expirationMs tiempo de expiración del token de acceso en milisegundos.
+   * @param stateless si la autenticación se resuelve solo con las claims del token.
    */
-  private SecretKey getSigningKey() {
-    byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-    return Keys.hmacShaKeyFor(keyBytes);
+  public JwtUtils(@Value("${deviaje.app.jwtSecret}") String secret,
+                  @Value("${deviaje.app.jwtExpirationMs}") long expirationMs,
+                  @Value("${deviaje.app.jwtStateless:false}") boolean stateless) {
+    this.expirationMs = expirationMs;
+    this.stateless = stateless;
+    this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    this.jwtParser = Jwts.parser()
+            .verifyWith(signingKey)
+            .build();
+  }
+
+  /**
+   * Metodo que verifica la firma y la expiración del token una sola vez
+   * y devuelve su contenido.
+   *
+   * @param token el token JWT.
+   * @return el token verificado.
+   * @throws JwtException si la firma no es válida o el token ha expirado.
+   */
+  public ParsedToken verify(String token) {
+    return new ParsedToken(jwtParser.parseSignedClaims(token).getPayload());
   }
 
   /**
@@ -44,7 +98,7 @@ public class JwtUtils {
    * @return el nombre de usuario.
    */
   public String extractUsername(String token) {
-    return extractClaim(token, Claims::getSubject);
+    return verify(token).getSubject();
   }
 
   /**
@@ -54,7 +108,7 @@ public class JwtUtils {
    * @return la fecha de expiración.
    */
   public Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+    return Date.from(verify(token).getExpiration());
   }
 
   /**
@@ -66,36 +120,9 @@ public class JwtUtils {
    * @return la reclamación extraída.
    */
   public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaims(token);
-    return claimsResolver.apply(claims);
+    return claimsResolver.apply(verify(token).getClaims());
   }
 
-  /**
-   * Metodo que extrae todas las reclamaciones(claims) del token JWT.
-   *
-   * @param token el token JWT.
-   * @return las reclamaciones extraídas.
-   */
-  private Claims extractAllClaims(String token) {
-    return Jwts.parser()
-        .verifyWith(getSigningKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-  }
-
-  /**
-   * Metodo para validar si el token ha expirado.
-   *
-   * @param token el token JWT.
-   * @return true si el token ha expirado, false en caso contrario.
-   */
-  private Boolean isTokenExpired(String token) {
-    final Date expiration = extractExpiration(token);
-    return expiration.before(new Date());
-  }
-
-
   /**
    * Metodo que genera un token de acceso para un usuario.
    *
@@ -104,6 +131,13 @@ public class JwtUtils {
    */
   public String generateToken(UserDetails userDetails) {
     Map<String, Object> claims = new HashMap<>();
+    if (userDetails instanceof UserDetailsImpl user) {
+      claims.put(CLAIM_USER_ID, user.getId());
+      claims.put(CLAIM_ROLES, user.getAuthorities().stream()
+              .map(GrantedAuthority::getAuthority)
+              .toList());
+      claims.put(CLAIM_ACTIVE, Boolean.TRUE.equals(user.getActive()));
+    }
     return createToken(claims, userDetails.getUsername(),
             expirationMs);
   }
@@ -125,7 +159,7 @@ public class JwtUtils {
             .subject(subject)
             .issuedAt(Date.from(now))
             .expiration(Date.from(expiryDate))
-            .signWith(getSigningKey())
+            .signWith(signingKey)
             .compact();
   }
 
@@ -137,7 +171,48 @@ public class JwtUtils {
    * @return true si el token es válido, false en caso contrario.
    */
   public Boolean validateToken(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    return validateToken(verify(token), userDetails);
+  }
+
+  /**
+   * Metodo para validar un token ya verificado contra los detalles del usuario,
+   * sin volver a verificar la firma.
+   *
+   * @param token el token verificado.
+   * @param userDetails detalles del usuario.
+   * @return true si el token es válido, false en caso contrario.
+   */
+  public boolean validateToken(ParsedToken token, UserDetails userDetails) {
+    return token.getSubject().equals(userDetails.getUsername()) && !token.isExpired();
+  }
+
+  /**
+   * Indica si está habilitado el modo de autenticación sin estado.
+   *
+   * @return true si el principal se construye a partir de las claims del token.
+   */
+  public boolean isStateless() {
+    return stateless;
+  }
+
+  /**
+   * Metodo que construye los detalles del usuario a partir de un token verificado,
+   * sin consultar la base de datos.
+   *
+   * @param token el token verificado.
+   * @return los detalles del usuario, o null si el token no contiene las claims
+   *     necesarias (por ejemplo, tokens emitidos antes de habilitar el modo sin estado).
+   */
+  public UserDetailsImpl buildUserDetails(ParsedToken token) {
+    Claims claims = token.getClaims();
+    Integer userId = claims.get(CLAIM_USER_ID, Integer.class);
+    List<?> roles = claims.get(CLAIM_ROLES, List.class);
+    Boolean active = claims.get(CLAIM_ACTIVE, Boolean.class);
+    if (userId == null || roles == null || active == null) {
+      return null;
+    }
+
+    return UserDetailsImpl.build(userId, token.getSubject(),
+            roles.stream().map(String::valueOf).toList(), active);
   }
 }
@@ -0,0 +1,39 @@
+package masera.deviajeusersandauth.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import java.time.Instant;
+import lombok.Getter;
+
+/**
+ * Representa un token JWT cuya firma ya fue verificada.
+ * Es inmutable: las claims de jjwt no se pueden modificar una vez parseadas.
+ */
+@Getter
+public final class ParsedToken {
+
+  private final String subject;
+  private final Instant issuedAt;
+  private final Instant expiration;
+  private final Claims claims;
+
+  /**
+   * Constructor a partir de las claims verificadas.
+   *
+   * @param claims las claims del token.
+   */
+  ParsedToken(Claims claims) {
+    this.claims = claims;
+    this.subject = claims.getSubject();
+    this.issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+    this.expiration = claims.getExpiration().toInstant();
+  }
+
+  /**
+   * Indica si el token ha expirado.
+   *
+   * @return true si el token ha expirado, false en caso contrario.
+   */
+  public boolean isExpired() {
+    return expiration.isBefore(Instant.now());
+  }
+}
@@ -0,0 +1,76 @@
+package masera.deviajeusersandauth.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import lombok.NonNull;
+import masera.deviajeusersandauth.events.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Decorador de {@link UserDetailsServiceImpl} que mantiene en memoria los
+ * detalles de los usuarios para no consultar la base de datos en cada login
+ * ni en cada solicitud autenticada con JWT.
+ * Las entradas se invalidan cuando se publica un {@link UserChangedEvent} y,
+ * para cambios hechos por fuera de esta instancia, vencen como máximo
+ * al cumplirse el TTL configurado.
+ */
+@Service
+@Primary
+public class CachingUserDetailsService implements UserDetailsService {
+
+  private final UserDetailsServiceImpl delegate;
+
+  private final Cache<String, UserDetails> cache;
+
+  /**
+   * Constructor del servicio.
+   *
+   * @param delegate servicio que carga los usuarios desde la base de datos.
+   * @param ttlMs tiempo máximo que un usuario permanece en cache (cota de desactualización).
+   * @param maxSize cantidad máxima de usuarios en cache.
+   * @param meterRegistry registro de métricas donde se publican aciertos y fallos.
+   */
+  public CachingUserDetailsService(
+          UserDetailsServiceImpl delegate,
+          @Value("${deviaje.app.userDetailsCacheTtlMs:60000}") long ttlMs,
+          @Value("${deviaje.app.userDetailsCacheMaxSize:10000}") long maxSize,
+          MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.details");
+  }
+
+  @Override
+  @NonNull
+  public UserDetails loadUserByUsername(@NonNull String username) throws UsernameNotFoundException {
+    return cache.get(username, delegate::loadUserByUsername);
+  }
+
+  /**
+   * Invalida las entradas del usuario modificado una vez confirmada la transacción,
+   * para que la siguiente carga lea los datos ya persistidos.
+   *
+   * @param event evento con el id del usuario modificado.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onUserChanged(UserChangedEvent event) {
+    cache.asMap().values().removeIf(user ->
+            user instanceof UserDetailsImpl details
+                    && event.getUserId().equals(details.getId()));
+  }
+}
@@ -37,6 +37,11 @@ public class UserDetailsImpl implements UserDetails {
   private final Boolean active;
   private final String avatarUrl;
 
+  /**
+   * Indica si el usuario inició sesión con una contraseña temporal.
+   */
+  private final Boolean isTemporaryPassword;
+
   /**
    * Lista de roles del usuario.
    */
@@ -64,9 +69,31 @@ public class UserDetailsImpl implements UserDetails {
             user.getBirthDate(),
             user.getActive(),
             user.getAvatarUrl(),
+            user.getIsTemporaryPassword(),
             authorities);
   }
 
+  /**
+   * Metodo estático para construir un objeto UserDetailsImpl a partir de
+   * las claims de un token JWT ya verificado. Solo contiene los datos
+   * necesarios para la autorización.
+   *
+   * @param id el id del usuario.
+   * @param username el nombre de usuario.
+   * @param roles los roles del usuario.
+   * @param active si el usuario está activo.
+   * @return un objeto UserDetailsImpl.
+   */
+  public static UserDetailsImpl build(Integer id, String username,
+                                      List<String> roles, Boolean active) {
+    List<GrantedAuthority> authorities = roles.stream()
+            .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+            .toList();
+
+    return new UserDetailsImpl(id, username, null, null, null, null, null, null,
+            active, null, null, authorities);
+  }
+
   @Override
   @NonNull
   public Collection<? extends GrantedAuthority> getAuthorities() {
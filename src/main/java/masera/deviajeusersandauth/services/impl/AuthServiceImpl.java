@@ -1,27 +1,31 @@
 package masera.deviajeusersandauth.services.impl;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import masera.deviajeusersandauth.dtos.post.LoginRequest;
 import masera.deviajeusersandauth.dtos.post.RefreshTokenRequest;
 import masera.deviajeusersandauth.dtos.responses.JwtResponse;
 import masera.deviajeusersandauth.dtos.responses.MessageResponse;
-import masera.deviajeusersandauth.entities.RefreshTokenEntity;
 import masera.deviajeusersandauth.entities.UserEntity;
-import masera.deviajeusersandauth.exceptions.ResourceNotFoundException;
+import masera.deviajeusersandauth.exceptions.ServiceOverloadedException;
 import masera.deviajeusersandauth.exceptions.TokenRefreshException;
 import masera.deviajeusersandauth.repositories.UserRepository;
+import masera.deviajeusersandauth.security.crypto.BoundedPasswordEncoder;
+import masera.deviajeusersandauth.security.crypto.PasswordRehashService;
 import masera.deviajeusersandauth.security.jwt.JwtUtils;
 import masera.deviajeusersandauth.security.services.UserDetailsImpl;
 import masera.deviajeusersandauth.services.interfaces.AuthService;
 import masera.deviajeusersandauth.services.interfaces.RefreshTokenService;
-import org.springframework.security.authentication.AuthenticationManager;
+import masera.deviajeusersandauth.services.interfaces.RefreshTokenService.IssuedToken;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -31,47 +35,86 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
-  private final AuthenticationManager authenticationManager;
+  private final UserDetailsService userDetailsService;
 
   private final UserRepository userRepository;
 
-  private final PasswordEncoder passwordEncoder;
+  private final BoundedPasswordEncoder passwordEncoder;
 
   private final JwtUtils jwtUtils;
 
   private final RefreshTokenService refreshTokenService;
 
+  private final PasswordRehashService passwordRehashService;
+
+  /**
+   * Busca el usuario en el hilo de la solicitud, compara la contraseña en el pool
+   * de hasheo y emite los tokens en el executor de tareas asíncronas.
+   * Si el usuario no existe igual se hashea la contraseña, para que el tiempo de
+   * respuesta no revele qué nombres de usuario están registrados.
+   */
+  @Override
+  public CompletableFuture<JwtResponse> authenticateUserAsync(LoginRequest loginRequest) {
+    UserDetailsImpl userDetails = loadUser(loginRequest.getUsername());
+    CompletableFuture<Boolean> matches = userDetails != null
+            ? passwordEncoder.matchesAsync(loginRequest.getPassword(), userDetails.getPassword())
+            : passwordEncoder.encodeAsync(loginRequest.getPassword()).thenApply(hash -> false);
+
+    return matches.thenApply(matched -> {
+      if (!matched) {
+        throw new BadCredentialsException("Bad credentials");
+      }
+      return issueTokens(userDetails, loginRequest.getPassword());
+    });
+  }
+
   @Override
   public JwtResponse authenticateUser(LoginRequest loginRequest) {
     try {
-      Authentication authentication = authenticationManager.authenticate(
-              new UsernamePasswordAuthenticationToken(loginRequest.getUsername(),
-                      loginRequest.getPassword()));
+      return authenticateUserAsync(loginRequest).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
 
-      SecurityContextHolder.getContext().setAuthentication(authentication);
+  private UserDetailsImpl loadUser(String username) {
+    try {
+      return (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+    } catch (UsernameNotFoundException e) {
+      return null;
+    }
+  }
+
+  private JwtResponse issueTokens(UserDetailsImpl userDetails, String rawPassword) {
+    try {
+      if (!userDetails.isEnabled()) {
+        throw new DisabledException("User is disabled");
+      }
+
+      passwordRehashService.rehashIfNeeded(userDetails.getId(), userDetails.getPassword(),
+              rawPassword);
 
-      UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
       String jwt = jwtUtils.generateToken(userDetails);
 
       List<String> roles = userDetails.getAuthorities().stream()
               .map(item -> item.getAuthority())
               .collect(Collectors.toList());
 
-      RefreshTokenEntity refreshToken = refreshTokenService.createRefreshToken(userDetails.getId());
+      IssuedToken refreshToken = refreshTokenService.createRefreshToken(userDetails.getId());
 
-      UserEntity user = userRepository.findById(userDetails.getId())
-              .orElseThrow(() -> new ResourceNotFoundException(
-                      "Usuario no encontrado con id: " + userDetails.getId()));
       return JwtResponse.builder()
               .token(jwt)
-              .refreshToken(refreshToken.getToken())
+              .refreshToken(refreshToken.token())
               .id(userDetails.getId())
               .username(userDetails.getUsername())
               .email(userDetails.getEmail())
               .roles(roles)
-              .isTemporaryPassword(user.getIsTemporaryPassword())
+              .isTemporaryPassword(userDetails.getIsTemporaryPassword())
               .build();
-    } catch (BadCredentialsException e) {
+    } catch (BadCredentialsException | ServiceOverloadedException e) {
       throw e;
     } catch (Exception e) {
       // Registro detallado para depuración
@@ -84,9 +127,9 @@ public class AuthServiceImpl implements AuthService {
   public JwtResponse refreshToken(RefreshTokenRequest request) {
     String requestRefreshToken = request.getRefreshToken();
 
-    return refreshTokenService.findByToken(requestRefreshToken)
-            .map(refreshTokenService::verifyExpiration)
-            .map(RefreshTokenEntity::getUser)
+    IssuedToken rotated = refreshTokenService.rotateRefreshToken(requestRefreshToken);
+
+    return userRepository.findByIdWithRoles(rotated.userId())
             .map(user -> {
               // Usar el nuevo metodo del JwtUtils actualizado para generar token
               UserDetailsImpl userDetails = UserDetailsImpl.build(user);
@@ -98,7 +141,7 @@ public class AuthServiceImpl implements AuthService {
 
               return JwtResponse.builder()
                       .token(token)
-                      .refreshToken(requestRefreshToken)
+                      .refreshToken(rotated.token())
                       .id(user.getId())
                       .username(user.getUsername())
                       .email(user.getEmail())
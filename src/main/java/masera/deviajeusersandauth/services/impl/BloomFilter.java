@@ -0,0 +1,114 @@
+package masera.deviajeusersandauth.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de claves de texto, seguro para uso concurrente.
+ * Puede dar falsos positivos (dice que una clave puede estar cuando no está),
+ * pero nunca falsos negativos.
+ */
+final class BloomFilter {
+
+  private final AtomicLongArray bits;
+
+  private final long bitCount;
+
+  private final int hashFunctions;
+
+  /**
+   * Crea un filtro dimensionado para una cantidad de claves y una tasa de falsos positivos.
+   *
+   * @param expectedInsertions cantidad de claves esperadas.
+   * @param falsePositiveRate tasa de falsos positivos buscada, entre 0 y 1.
+   */
+  BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(expectedInsertions, 1);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.min((m + 63) / 64, Integer.MAX_VALUE);
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words * 64;
+    this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+  }
+
+  /**
+   * Agrega una clave.
+   *
+   * @param key la clave.
+   */
+  void put(String key) {
+    long hash = hash(key);
+    long h1 = mix(hash);
+    long h2 = mix(hash + 0x9E3779B97F4A7C15L) | 1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current = bits.get(word);
+      while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+        current = bits.get(word);
+      }
+    }
+  }
+
+  /**
+   * Indica si la clave puede estar en el filtro.
+   *
+   * @param key la clave.
+   * @return false si la clave seguro no fue agregada.
+   */
+  boolean mightContain(String key) {
+    long hash = hash(key);
+    long h1 = mix(hash);
+    long h2 = mix(hash + 0x9E3779B97F4A7C15L) | 1;
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Tasa de falsos positivos estimada según la proporción de bits encendidos.
+   *
+   * @return la tasa estimada, entre 0 y 1.
+   */
+  double expectedFalsePositiveRate() {
+    long setBits = 0;
+    for (int i = 0; i < bits.length(); i++) {
+      setBits += Long.bitCount(bits.get(i));
+    }
+    return Math.pow((double) setBits / bitCount, hashFunctions);
+  }
+
+  /**
+   * Memoria ocupada por el arreglo de bits.
+   *
+   * @return la cantidad de bytes.
+   */
+  long sizeInBytes() {
+    return bitCount / 8;
+  }
+
+  // FNV-1a de 64 bits sobre los bytes UTF-8 de la clave
+  private static long hash(String key) {
+    long hash = 0xCBF29CE484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001B3L;
+    }
+    return hash;
+  }
+
+  // Mezcla final de MurmurHash3, distribuye los bits del hash
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB93FE1A85A53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
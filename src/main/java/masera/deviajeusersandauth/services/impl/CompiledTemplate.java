@@ -0,0 +1,135 @@
+package masera.deviajeusersandauth.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Plantilla HTML ya analizada: una secuencia de tramos de texto fijo y de huecos
+ * con nombre. Se analiza una sola vez y luego solo se copian los tramos y se
+ * insertan los valores escapados, sin volver a recorrer el texto original.
+ * La sintaxis es {@code {{nombre}}} para un valor y {@code {{> archivo}}} para
+ * incluir otro archivo, que se resuelve al compilar.
+ */
+final class CompiledTemplate {
+
+  private static final String OPEN = "{{";
+
+  private static final String CLOSE = "}}";
+
+  /**
+   * Texto fijo, intercalado con los huecos: literals[i] va antes de slots[i] y el
+   * último literal va al final.
+   */
+  private final String[] literals;
+
+  private final String[] slots;
+
+  private CompiledTemplate(String[] literals, String[] slots) {
+    this.literals = literals;
+    this.slots = slots;
+  }
+
+  /**
+   * Analiza una plantilla.
+   *
+   * @param source el texto de la plantilla.
+   * @param partials devuelve el texto de un archivo incluido a partir de su nombre.
+   * @return la plantilla compilada.
+   * @throws IllegalArgumentException si la plantilla está mal formada.
+   */
+  static CompiledTemplate compile(String source, UnaryOperator<String> partials) {
+    String text = inline(source, partials, 0);
+    List<String> literals = new ArrayList<>();
+    List<String> slots = new ArrayList<>();
+    int from = 0;
+    int open;
+    while ((open = text.indexOf(OPEN, from)) >= 0) {
+      int close = text.indexOf(CLOSE, open + OPEN.length());
+      if (close < 0) {
+        throw new IllegalArgumentException("Hueco sin cerrar en la posición " + open);
+      }
+      String name = text.substring(open + OPEN.length(), close).trim();
+      if (name.isEmpty()) {
+        throw new IllegalArgumentException("Hueco sin nombre en la posición " + open);
+      }
+      literals.add(text.substring(from, open));
+      slots.add(name);
+      from = close + CLOSE.length();
+    }
+    literals.add(text.substring(from));
+    return new CompiledTemplate(literals.toArray(String[]::new), slots.toArray(String[]::new));
+  }
+
+  private static String inline(String source, UnaryOperator<String> partials, int depth) {
+    if (depth > 5) {
+      throw new IllegalArgumentException("Demasiados niveles de inclusión");
+    }
+    StringBuilder out = new StringBuilder(source.length());
+    int from = 0;
+    int open;
+    while ((open = source.indexOf(OPEN + ">", from)) >= 0) {
+      int close = source.indexOf(CLOSE, open);
+      if (close < 0) {
+        throw new IllegalArgumentException("Inclusión sin cerrar en la posición " + open);
+      }
+      String partial = source.substring(open + OPEN.length() + 1, close).trim();
+      out.append(source, from, open)
+              .append(inline(partials.apply(partial), partials, depth + 1));
+      from = close + CLOSE.length();
+    }
+    return out.append(source, from, source.length()).toString();
+  }
+
+  /**
+   * Renderiza la plantilla. Los valores se escapan como HTML.
+   *
+   * @param values valores por nombre de hueco.
+   * @return el documento resultante.
+   * @throws IllegalArgumentException si falta el valor de algún hueco.
+   */
+  String render(Map<String, ?> values) {
+    String[] parts = new String[literals.length + slots.length];
+    for (int i = 0; i < slots.length; i++) {
+      parts[2 * i] = literals[i];
+      Object value = values.get(slots[i]);
+      if (value == null) {
+        throw new IllegalArgumentException("Falta el valor de '" + slots[i] + "'");
+      }
+      parts[2 * i + 1] = escape(value.toString());
+    }
+    parts[parts.length - 1] = literals[slots.length];
+    // String.join calcula el largo total y copia cada tramo una sola vez
+    return String.join("", parts);
+  }
+
+  /**
+   * Escapa un valor para insertarlo en texto o en atributos HTML.
+   *
+   * @param value el valor.
+   * @return el valor escapado, o el mismo valor si no tiene caracteres especiales.
+   */
+  static String escape(String value) {
+    StringBuilder out = null;
+    int from = 0;
+    for (int i = 0; i < value.length(); i++) {
+      String entity = switch (value.charAt(i)) {
+        case '&' -> "&amp;";
+        case '<' -> "&lt;";
+        case '>' -> "&gt;";
+        case '"' -> "&quot;";
+        case '\'' -> "&#39;";
+        default -> null;
+      };
+      if (entity != null) {
+        if (out == null) {
+          out = new StringBuilder(value.length() + 16);
+        }
+        out.append(value, from, i).append(entity);
+        from = i + 1;
+      }
+    }
+    return out == null ? value : out.append(value, from, value.length()).toString();
+  }
+}
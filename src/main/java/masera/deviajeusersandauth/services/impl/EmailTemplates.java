@@ -0,0 +1,68 @@
+package masera.deviajeusersandauth.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plantillas de los correos electrónicos, ubicadas en {@code templates/email}.
+ * Se leen y compilan una sola vez al iniciar la aplicación, por lo que un error
+ * en una plantilla impide el arranque en lugar de aparecer al enviar el correo.
+ */
+@Component
+public class EmailTemplates {
+
+  private static final String LOCATION = "templates/email/";
+
+  /**
+   * Correos disponibles, con el archivo de su plantilla.
+   */
+  public enum Template {
+    REGISTRATION("registration.html"),
+    ACCOUNT_CREATED("account-created.html"),
+    PASSWORD_RESET_BY_ADMIN("password-reset-by-admin.html"),
+    FORGOT_PASSWORD("forgot-password.html"),
+    PASSWORD_CHANGED("password-changed.html");
+
+    private final String file;
+
+    Template(String file) {
+      this.file = file;
+    }
+  }
+
+  private final Map<Template, CompiledTemplate> compiled = new EnumMap<>(Template.class);
+
+  /**
+   * Compila todas las plantillas.
+   */
+  public EmailTemplates() {
+    for (Template template : Template.values()) {
+      compiled.put(template, CompiledTemplate.compile(read(template.file), EmailTemplates::read));
+    }
+  }
+
+  /**
+   * Renderiza una plantilla.
+   *
+   * @param template la plantilla.
+   * @param values valores por nombre de hueco, se escapan como HTML.
+   * @return el HTML del correo.
+   */
+  public String render(Template template, Map<String, ?> values) {
+    return compiled.get(template).render(values);
+  }
+
+  private static String read(String file) {
+    try (InputStream in = new ClassPathResource(LOCATION + file).getInputStream()) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException("No se pudo leer la plantilla " + file, e);
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package masera.deviajeusersandauth.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import masera.deviajeusersandauth.entities.RefreshTokenEntity;
+import masera.deviajeusersandauth.repositories.RefreshTokenRepository;
+import masera.deviajeusersandauth.repositories.UserRepository;
+import masera.deviajeusersandauth.services.interfaces.RefreshTokenStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Almacén de tokens de refresco en memoria con persistencia diferida (write-behind).
+ * Las lecturas se resuelven en memoria. Las escrituras se encolan en orden y se
+ * vuelcan a la base de datos en lotes periódicos, cada lote en una transacción.
+ * Revocar una familia o los tokens de un usuario recorre todos los tokens en memoria.
+ * Al iniciar se cargan los tokens vigentes de la tabla, y un token que no está
+ * en memoria se busca en la base de datos.
+ * Si la instancia termina de forma abrupta se pierden los cambios pendientes
+ * (a lo sumo el último intervalo) y esos usuarios deberán volver a iniciar sesión.
+ * Pensado para una única instancia: con varias, cada una ve primero sus propios cambios.
+ */
+@Component
+@ConditionalOnProperty(name = "deviaje.app.refreshToken.store", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(InMemoryRefreshTokenStore.class);
+
+  /**
+   * Cantidad de intentos de una escritura antes de descartarla.
+   */
+  private static final int MAX_ATTEMPTS = 3;
+
+  /**
+   * Tokens por digest (en hexadecimal), para el camino de lectura.
+   * ConcurrentHashMap ya particiona sus bloqueos por porción del mapa, por lo que
+   * las operaciones sobre tokens distintos no compiten entre sí.
+   */
+  private final Map<String, StoredToken> tokens = new ConcurrentHashMap<>();
+
+  /**
+   * Escrituras pendientes de persistir, en el orden en que ocurrieron. Una escritura
+   * sale de la cola recién cuando su lote se confirmó en la base de datos.
+   */
+  private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+
+  private int failedAttempts;
+
+  private final RefreshTokenRepository refreshTokenRepository;
+
+  private final UserRepository userRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final int batchSize;
+
+  private final Counter droppedWrites;
+
+  /**
+   * Constructor del almacén.
+   *
+   * @param refreshTokenRepository repositorio de tokens de refresco.
+   * @param userRepository repositorio de usuarios.
+   * @param transactionManager administrador de transacciones.
+   * @param batchSize cantidad máxima de escrituras que se persisten por transacción.
+   * @param meterRegistry registro de métricas donde se cuentan las escrituras descartadas.
+   */
+  public InMemoryRefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                                   UserRepository userRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${deviaje.app.refreshToken.batchSize:500}")
+                                   int batchSize,
+                                   MeterRegistry meterRegistry) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.userRepository = userRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.droppedWrites = Counter.builder("deviaje.refresh.tokens.writes.dropped")
+            .description("Escrituras de tokens de refresco descartadas tras fallar varias veces")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Carga en memoria los tokens vigentes de la base de datos.
+   */
+  @PostConstruct
+  public void warmUp() {
+    List<RefreshTokenEntity> stored =
+            refreshTokenRepository.findAllByExpiryDateAfter(Instant.now());
+    for (RefreshTokenEntity entity : stored) {
+      StoredToken token = JpaRefreshTokenStore.toStoredToken(entity);
+      tokens.put(key(token.tokenHash()), token);
+    }
+    logger.info("Se cargaron {} tokens de refresco en memoria", stored.size());
+  }
+
+  @Override
+  public Optional<StoredToken> findByHash(byte[] tokenHash) {
+    StoredToken cached = tokens.get(key(tokenHash));
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    // No está en memoria: puede haberlo creado otra instancia. Si hay cambios locales
+    // pendientes sobre ese token, la memoria es la fuente más reciente.
+    Optional<StoredToken> stored = refreshTokenRepository.findByTokenHash(tokenHash)
+            .map(JpaRefreshTokenStore::toStoredToken)
+            .filter(found -> !hasPendingWrite(found));
+    stored.ifPresent(found -> tokens.putIfAbsent(key(tokenHash), found));
+    return stored;
+  }
+
+  @Override
+  public void save(StoredToken token) {
+    tokens.put(key(token.tokenHash()), token);
+    pendingWrites.add(new Insert(token));
+  }
+
+  @Override
+  public boolean markRotated(StoredToken token, Instant rotatedAt) {
+    boolean[] rotated = {false};
+    tokens.computeIfPresent(key(token.tokenHash()), (key, current) -> {
+      if (current.rotatedAt() != null) {
+        return current;
+      }
+      rotated[0] = true;
+      return current.rotated(rotatedAt);
+    });
+    if (rotated[0]) {
+      pendingWrites.add(new Rotate(token.tokenHash(), rotatedAt));
+    }
+    return rotated[0];
+  }
+
+  @Override
+  public void revokeFamily(UUID familyId) {
+    tokens.values().removeIf(token -> token.familyId().equals(familyId));
+    pendingWrites.add(new RevokeFamily(familyId));
+  }
+
+  @Override
+  public int deleteByUserId(Integer userId) {
+    int before = tokens.size();
+    tokens.values().removeIf(token -> token.userId().equals(userId));
+    // Se elimina también de la base aunque no esté en memoria
+    pendingWrites.add(new DeleteUser(userId));
+    return before - tokens.size();
+  }
+
+  @Override
+  public int evictExpired() {
+    int before = tokens.size();
+    tokens.values().removeIf(StoredToken::isExpired);
+    return before - tokens.size();
+  }
+
+  /**
+   * Persiste las escrituras pendientes en lotes. Si un lote falla se vuelve a
+   * intentar de a una escritura, para aislar la que falla: esa se reintenta en los
+   * próximos intervalos y, tras varios intentos, se descarta sola.
+   */
+  @Scheduled(fixedDelayString = "${deviaje.app.refreshToken.flushIntervalMs:1000}")
+  public synchronized void flush() {
+    int batches = pendingWrites.size() / batchSize + 1;
+    for (int i = 0; i < batches && !pendingWrites.isEmpty(); i++) {
+      List<PendingWrite> batch = pendingWrites.stream()
+              .limit(batchSize)
+              .toList();
+      try {
+        transactionTemplate.executeWithoutResult(status -> batch.forEach(this::write));
+        failedAttempts = 0;
+      } catch (RuntimeException e) {
+        logger.warn("No se pudo persistir un lote de {} escrituras de tokens de refresco, "
+                + "se reintenta de a una", batch.size(), e);
+        flushOneByOne(batch);
+        return;
+      }
+      // Solo este metodo quita elementos, así que los primeros de la cola son los del lote
+      batch.forEach(write -> pendingWrites.poll());
+    }
+  }
+
+  /**
+   * Persiste el lote escritura por escritura, en orden. Se detiene en la primera que
+   * falla para no aplicar las siguientes antes que ella.
+   */
+  private void flushOneByOne(List<PendingWrite> batch) {
+    for (PendingWrite write : batch) {
+      try {
+        transactionTemplate.executeWithoutResult(status -> write(write));
+        failedAttempts = 0;
+      } catch (RuntimeException e) {
+        failedAttempts++;
+        if (failedAttempts < MAX_ATTEMPTS) {
+          logger.warn("No se pudo persistir una escritura de tokens de refresco", e);
+          return;
+        }
+        logger.error("Se descarta una escritura de tokens de refresco: {}", write, e);
+        droppedWrites.increment();
+        failedAttempts = 0;
+      }
+      pendingWrites.poll();
+    }
+  }
+
+  /**
+   * Persiste los cambios pendientes antes de detener la aplicación.
+   */
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  private boolean hasPendingWrite(StoredToken token) {
+    return pendingWrites.stream().anyMatch(write -> write.affects(token));
+  }
+
+  private void write(PendingWrite write) {
+    switch (write) {
+      case Insert insert -> refreshTokenRepository.save(
+              JpaRefreshTokenStore.toEntity(insert.token(), userRepository));
+      case Rotate rotate -> refreshTokenRepository.markRotated(rotate.tokenHash(),
+              rotate.rotatedAt(), LocalDateTime.now());
+      case RevokeFamily revoke -> refreshTokenRepository.deleteByFamilyId(revoke.familyId());
+      case DeleteUser delete -> refreshTokenRepository.deleteByUserIds(List.of(delete.userId()));
+    }
+  }
+
+  private static String key(byte[] tokenHash) {
+    return HexFormat.of().formatHex(tokenHash);
+  }
+
+  /**
+   * Escritura pendiente de persistir.
+   */
+  private sealed interface PendingWrite {
+
+    /**
+     * Indica si la escritura modifica el token dado.
+     *
+     * @param token el token.
+     * @return true si la escritura lo modifica.
+     */
+    boolean affects(StoredToken token);
+  }
+
+  private record Insert(StoredToken token) implements PendingWrite {
+    @Override
+    public boolean affects(StoredToken other) {
+      return false;
+    }
+  }
+
+  private record Rotate(byte[] tokenHash, Instant rotatedAt) implements PendingWrite {
+    @Override
+    public boolean affects(StoredToken token) {
+      return Arrays.equals(tokenHash, token.tokenHash());
+    }
+  }
+
+  private record RevokeFamily(UUID familyId) implements PendingWrite {
+    @Override
+    public boolean affects(StoredToken token) {
+      return familyId.equals(token.familyId());
+    }
+  }
+
+  private record DeleteUser(Integer userId) implements PendingWrite {
+    @Override
+    public boolean affects(StoredToken token) {
+      return userId.equals(token.userId());
+    }
+  }
+}
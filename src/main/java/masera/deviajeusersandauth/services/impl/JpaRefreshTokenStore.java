@@ -0,0 +1,76 @@
+package masera.deviajeusersandauth.services.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import masera.deviajeusersandauth.entities.RefreshTokenEntity;
+import masera.deviajeusersandauth.repositories.RefreshTokenRepository;
+import masera.deviajeusersandauth.repositories.UserRepository;
+import masera.deviajeusersandauth.services.interfaces.RefreshTokenStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Almacén de tokens de refresco que opera directamente sobre la base de datos.
+ */
+@Component
+@ConditionalOnProperty(name = "deviaje.app.refreshToken.store", havingValue = "jpa",
+        matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+  private final RefreshTokenRepository refreshTokenRepository;
+
+  private final UserRepository userRepository;
+
+  @Override
+  public Optional<StoredToken> findByHash(byte[] tokenHash) {
+    return refreshTokenRepository.findByTokenHash(tokenHash)
+            .map(JpaRefreshTokenStore::toStoredToken);
+  }
+
+  @Override
+  @Transactional
+  public void save(StoredToken token) {
+    refreshTokenRepository.save(toEntity(token, userRepository));
+  }
+
+  @Override
+  @Transactional
+  public boolean markRotated(StoredToken token, Instant rotatedAt) {
+    return refreshTokenRepository.markRotated(token.tokenHash(), rotatedAt,
+            LocalDateTime.now()) > 0;
+  }
+
+  @Override
+  @Transactional
+  public void revokeFamily(UUID familyId) {
+    refreshTokenRepository.deleteByFamilyId(familyId);
+  }
+
+  @Override
+  @Transactional
+  public int deleteByUserId(Integer userId) {
+    return refreshTokenRepository.deleteByUserIds(List.of(userId));
+  }
+
+  static StoredToken toStoredToken(RefreshTokenEntity entity) {
+    return new StoredToken(entity.getTokenHash(), entity.getUserId(), entity.getFamilyId(),
+            entity.getExpiryDate(), entity.getRotatedAt());
+  }
+
+  static RefreshTokenEntity toEntity(StoredToken token, UserRepository userRepository) {
+    return RefreshTokenEntity.builder()
+            // Referencia sin consulta: el usuario ya fue cargado al autenticarse
+            .user(userRepository.getReferenceById(token.userId()))
+            .tokenHash(token.tokenHash())
+            .familyId(token.familyId())
+            .expiryDate(token.expiryDate())
+            .rotatedAt(token.rotatedAt())
+            .build();
+  }
+}
@@ -1,6 +1,9 @@
 package masera.deviajeusersandauth.services.impl;
 
 import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import masera.deviajeusersandauth.dtos.post.ForgotPasswordRequest;
 import masera.deviajeusersandauth.dtos.post.PasswordChangeRequest;
@@ -8,19 +11,23 @@ import masera.deviajeusersandauth.dtos.post.ResetPasswordRequest;
 import masera.deviajeusersandauth.dtos.responses.MessageResponse;
 import masera.deviajeusersandauth.entities.PasswordResetTokenEntity;
 import masera.deviajeusersandauth.entities.UserEntity;
+import masera.deviajeusersandauth.events.UserChangedEvent;
 import masera.deviajeusersandauth.exceptions.InvalidResetTokenException;
 import masera.deviajeusersandauth.exceptions.PasswordMismatchException;
 import masera.deviajeusersandauth.exceptions.ResourceNotFoundException;
 import masera.deviajeusersandauth.repositories.PasswordResetTokenRepository;
 import masera.deviajeusersandauth.repositories.UserRepository;
+import masera.deviajeusersandauth.security.crypto.BoundedPasswordEncoder;
+import masera.deviajeusersandauth.services.impl.EmailTemplates.Template;
 import masera.deviajeusersandauth.services.interfaces.EmailService;
 import masera.deviajeusersandauth.services.interfaces.PasswordService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Implementación del servicio de gestión de contraseñas.
@@ -35,18 +42,24 @@ public class PasswordServiceImpl implements PasswordService {
 
   private final PasswordResetTokenRepository resetTokenRepository;
 
-  private final PasswordEncoder passwordEncoder;
+  private final BoundedPasswordEncoder passwordEncoder;
 
   private final EmailService emailService;
 
+  private final EmailTemplates emailTemplates;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final TransactionTemplate transactionTemplate;
+
   @Value("${deviaje.app.frontend-url}")
   private String frontendUrl;
 
   private final Logger logger = LoggerFactory.getLogger(PasswordServiceImpl.class);
 
   @Override
-  @Transactional
-  public MessageResponse changePassword(Integer userId, PasswordChangeRequest request) {
+  public CompletableFuture<MessageResponse> changePassword(Integer userId,
+                                                           PasswordChangeRequest request) {
     // Validar que las contraseñas coincidan
     if (!request.getNewPassword().equals(request.getConfirmPassword())) {
       throw new PasswordMismatchException("Las contraseñas no coinciden");
@@ -56,18 +69,29 @@ public class PasswordServiceImpl implements PasswordService {
     UserEntity user = userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException(
                     "Usuario no encontrado con id: " + userId));
-
-    // Verificar contraseña actual
-    if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
-      throw new PasswordMismatchException("La contraseña actual es incorrecta");
-    }
-
-    // Actualizar contraseña
-    user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-    user.setIsTemporaryPassword(false);
-    userRepository.save(user);
-
-    return new MessageResponse("Password cambiada exitosamente", true);
+    String currentHash = user.getPassword();
+
+    // Verificar la contraseña actual y hashear la nueva en el pool de hasheo
+    return passwordEncoder.matchesAsync(request.getCurrentPassword(), currentHash)
+            .thenCompose(matches -> {
+              if (!matches) {
+                throw new PasswordMismatchException("La contraseña actual es incorrecta");
+              }
+              return passwordEncoder.encodeAsync(request.getNewPassword());
+            })
+            .thenApply(newHash -> transactionTemplate.execute(status -> {
+              // Se descarta el cambio si la contraseña cambió mientras se hasheaba
+              UserEntity current = userRepository.findById(userId)
+                      .filter(found -> currentHash.equals(found.getPassword()))
+                      .orElseThrow(() -> new PasswordMismatchException(
+                              "La contraseña actual es incorrecta"));
+              current.setPassword(newHash);
+              current.setIsTemporaryPassword(false);
+              userRepository.save(current);
+              eventPublisher.publishEvent(new UserChangedEvent(current.getId()));
+
+              return new MessageResponse("Password cambiada exitosamente", true);
+            }));
   }
 
   @Override
@@ -109,15 +133,23 @@ public class PasswordServiceImpl implements PasswordService {
 
 
   @Override
-  @Transactional
-  public MessageResponse resetPassword(ResetPasswordRequest request) {
+  public CompletableFuture<MessageResponse> resetPassword(ResetPasswordRequest request) {
     // Validar que las contraseñas coincidan
     if (!request.getNewPassword().equals(request.getConfirmPassword())) {
       throw new PasswordMismatchException("Las contraseñas no coinciden");
     }
 
+    findValidResetToken(request.getToken());
+
+    // Hashear en el pool de hasheo y guardar en una transacción propia
+    return passwordEncoder.encodeAsync(request.getNewPassword())
+            .thenApply(newHash -> transactionTemplate.execute(status ->
+                    applyReset(request.getToken(), newHash)));
+  }
+
+  private PasswordResetTokenEntity findValidResetToken(String token) {
     // Buscar token
-    PasswordResetTokenEntity resetToken = resetTokenRepository.findByToken(request.getToken())
+    PasswordResetTokenEntity resetToken = resetTokenRepository.findByToken(token)
             .orElseThrow(() ->
                     new InvalidResetTokenException("El token de "
                             + "restablecimiento de contraseña no es válido"));
@@ -127,13 +159,20 @@ public class PasswordServiceImpl implements PasswordService {
       throw new InvalidResetTokenException("El token de restablecimiento "
               + "de contraseña ha expirado o ya ha sido utilizado");
     }
+    return resetToken;
+  }
+
+  private MessageResponse applyReset(String token, String newHash) {
+    // Se vuelve a validar: el token pudo usarse mientras se hasheaba
+    PasswordResetTokenEntity resetToken = findValidResetToken(token);
 
     // Obtener usuario
     UserEntity user = resetToken.getUser();
 
     // Actualizar contraseña
-    user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+    user.setPassword(newHash);
     userRepository.save(user);
+    eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
     // Marcar token como usado
     resetToken.setUsed(true);
@@ -142,49 +181,13 @@ public class PasswordServiceImpl implements PasswordService {
     try {
       String emailSubject = "Confirmación de cambio de contraseña - DeViaje";
 
-      String emailContent =
-              "<html>"
-                      + "<head>"
-                      + "<style>"
-                      + "body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }"
-                      + ".container { max-width: 600px; margin: 0 auto; }"
-                      + ".header { background-color: #8B5CF6; padding: 20px; text-align: center; }"
-                      + ".header h1 { color: white; margin: 0; }"
-                      + ".content { padding: 20px; border: 1px solid #ddd; border-top: none; }"
-                      + ".success-icon { color: #10B981; font-size: 48px; "
-                      + "text-align: center; margin: 20px 0; }"
-                      + ".button { display: inline-block; "
-                      + "background-color: #8B5CF6; color: white; "
-                      + "padding: 10px 20px; text-decoration: none; border-radius: 5px; }"
-                      + ".footer { margin-top: 30px; font-size: 12px; "
-                      + "color: #666; text-align: center; }"
-                      + "</style>"
-                      + "</head>"
-                      + "<body>"
-                      + "<div class='container'>"
-                      + "<div class='header'><h1>DeViaje</h1></div>"
-                      + "<div class='content'>"
-                      + "<h2>Contraseña actualizada exitosamente</h2>"
-                      + "<div class='success-icon'>✓</div>"
-                      + "<p>Hemos actualizado exitosamente la contraseña de su cuenta.</p>"
-                      + "<p>Si usted no realizó este cambio, por "
-                      + "favor contáctenos inmediatamente.</p>"
-                      + "<div style='text-align: center; margin: 30px 0;'>"
-                      + "<a href='" + frontendUrl
-                      + "/user/login' class='button'>Iniciar sesión</a>"
-                      + "</div>"
-                      + "</div>"
-                      + "<div class='footer'>"
-                      + "<p>Este es un correo automático, por favor no responder.<br>"
-                      + "© " + java.time.Year.now().getValue()
-                      + " DeViaje. Todos los derechos reservados.</p>"
-                      + "</div>"
-                      + "</div>"
-                      + "</body>"
-                      + "</html>";
+      String emailContent = emailTemplates.render(Template.PASSWORD_CHANGED, Map.of(
+              "loginUrl", frontendUrl + "/user/login",
+              "year", Year.now().getValue()));
 
       emailService.sendEmail(user.getEmail(), emailSubject, emailContent);
-      logger.info("Correo de confirmación de cambio de contraseña enviado a: {}", user.getEmail());
+      logger.info("Correo de confirmación de cambio de contraseña encolado para: {}",
+              user.getEmail());
     } catch (Exception e) {
       // Log del error pero no interrumpir el flujo
       logger.error("Error al enviar correo de confirmación de cambio de contraseña", e);
@@ -197,48 +200,9 @@ public class PasswordServiceImpl implements PasswordService {
 
     String resetUrl = frontendUrl + "/user/reset-password?token=" + token;
     String emailSubject = "Recuperación de contraseña - DeViaje";
-    String emailContent =
-            "<html>"
-                    + "<head>"
-                    + "<style>"
-                    + "body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }"
-                    + ".container { max-width: 600px; margin: 0 auto; }"
-                    + ".header { background-color: #8B5CF6; padding: 20px; text-align: center; }"
-                    + ".header h1 { color: white; margin: 0; }"
-                    + ".content { padding: 20px; border: 1px solid #ddd; border-top: none; }"
-                    + ".button { display: inline-block; background-color: #8B5CF6; color: white; "
-                    + "padding: 10px 20px; text-decoration: none; border-radius: 5px; }"
-                    + ".footer { margin-top: 30px; font-size: 12px; "
-                    + "color: #666; text-align: center; }"
-                    + "</style>"
-                    + "</head>"
-                    + "<body>"
-                    + "<div class='container'>"
-                    + "<div class='header'><h1>DeViaje</h1></div>"
-                    + "<div class='content'>"
-                    + "<h2>Recuperación de Contraseña</h2>"
-                    + "<p>Hemos recibido una solicitud "
-                    + "para restablecer la contraseña de su cuenta.</p>"
-                    + "<p>Si no solicitó un restablecimiento de "
-                    + "contraseña, puede ignorar este correo "
-                    + "electrónico o contactarnos si tiene alguna inquietud.</p>"
-                    + "<p>Para restablecer su contraseña, haga clic en el siguiente enlace:</p>"
-                    + "<div style='text-align: center; margin: 30px 0;'>"
-                    + "<a href='" + resetUrl + "' class='button'>Restablecer mi contraseña</a>"
-                    + "</div>"
-                    + "<p>Este enlace expirará en 24 horas.</p>"
-                    + "<p>Si el botón no funciona, también puede "
-                    + "copiar y pegar la siguiente URL en su navegador:</p>"
-                    + "<p style='word-break: break-all;'>" + resetUrl + "</p>"
-                    + "</div>"
-                    + "<div class='footer'>"
-                    + "<p>Este es un correo automático, por favor no responder.<br>"
-                    + "© " + java.time.Year.now().getValue()
-                    + " DeViaje. Todos los derechos reservados.</p>"
-                    + "</div>"
-                    + "</div>"
-                    + "</body>"
-                    + "</html>";
+    String emailContent = emailTemplates.render(Template.FORGOT_PASSWORD, Map.of(
+            "resetUrl", resetUrl,
+            "year", Year.now().getValue()));
 
     emailService.sendEmail(email, emailSubject, emailContent);
   }
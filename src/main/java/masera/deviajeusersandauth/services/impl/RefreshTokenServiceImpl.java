@@ -1,73 +1,113 @@
 package masera.deviajeusersandauth.services.impl;
 
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Base64;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
-import masera.deviajeusersandauth.entities.RefreshTokenEntity;
-import masera.deviajeusersandauth.entities.UserEntity;
-import masera.deviajeusersandauth.exceptions.ResourceNotFoundException;
+import masera.deviajeusersandauth.exceptions.TokenRefreshConflictException;
 import masera.deviajeusersandauth.exceptions.TokenRefreshException;
-import masera.deviajeusersandauth.repositories.RefreshTokenRepository;
-import masera.deviajeusersandauth.repositories.UserRepository;
 import masera.deviajeusersandauth.services.interfaces.RefreshTokenService;
+import masera.deviajeusersandauth.services.interfaces.RefreshTokenStore;
+import masera.deviajeusersandauth.services.interfaces.RefreshTokenStore.StoredToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Servicio de tokens de refresco. Cada uso de un token lo rota: se emite uno nuevo
+ * de la misma familia y el anterior queda marcado como rotado. Un token rotado se
+ * canjea una sola vez: si se vuelve a presentar dentro del margen de gracia se
+ * responde un conflicto sin emitir otro, y fuera de él se revoca toda la familia.
+ */
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
+  private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+  private static final int TOKEN_BYTES = 32;
+
+  private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
   @Value("${deviaje.app.jwtRefreshExpirationMs}")
   private Long refreshTokenDurationMs;
 
-  private final RefreshTokenRepository refreshTokenRepository;
+  @Value("${deviaje.app.refreshToken.reuseGraceMs:10000}")
+  private Long reuseGraceMs;
 
-  private final UserRepository userRepository;
+  private final RefreshTokenStore refreshTokenStore;
 
   @Override
-  public Optional<RefreshTokenEntity> findByToken(String token) {
-    return refreshTokenRepository.findByToken(token);
+  public IssuedToken createRefreshToken(Integer userId) {
+    return issue(userId, UUID.randomUUID(), Instant.now().plusMillis(refreshTokenDurationMs));
   }
 
   @Override
-  @Transactional
-  public RefreshTokenEntity createRefreshToken(Integer userId) {
-    RefreshTokenEntity refreshToken = new RefreshTokenEntity();
-
-    UserEntity user = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-
-    // Delete any existing refresh tokens for this user
-    refreshTokenRepository.deleteByUser(user);
-
-    refreshToken.setUser(user);
-    refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-    refreshToken.setToken(UUID.randomUUID().toString());
+  @Transactional(noRollbackFor = TokenRefreshException.class)
+  public IssuedToken rotateRefreshToken(String token) {
+    StoredToken stored = refreshTokenStore.findByHash(hash(token))
+            .orElseThrow(() -> new TokenRefreshException(token, "Refresh token no encontrado"));
+    if (stored.isExpired()) {
+      throw new TokenRefreshException(token,
+              "Refresh token was expired. Please make a new sign in request");
+    }
 
-    refreshToken = refreshTokenRepository.save(refreshToken);
-    return refreshToken;
-  }
+    Instant now = Instant.now();
+    // La rotación es condicional: de dos usos concurrentes solo uno la gana
+    if (stored.rotatedAt() == null && refreshTokenStore.markRotated(stored, now)) {
+      // La familia conserva la expiración del login
+      return issue(stored.userId(), stored.familyId(), stored.expiryDate());
+    }
 
-  @Override
-  public RefreshTokenEntity verifyExpiration(RefreshTokenEntity token) {
-    if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-      refreshTokenRepository.delete(token);
-      throw new TokenRefreshException(token.getToken(),
-              "Refresh token was expired. Please make a new sign in request");
+    Instant rotatedAt = stored.rotatedAt() != null ? stored.rotatedAt() : now;
+    if (rotatedAt.plusMillis(reuseGraceMs).isBefore(now)) {
+      // Un token ya rotado se volvió a usar: se asume filtrado y se revoca la familia
+      refreshTokenStore.revokeFamily(stored.familyId());
+      logger.warn("Reutilización de refresh token del usuario {}: se revoca la familia {}",
+              stored.userId(), stored.familyId());
+      throw new TokenRefreshException(token,
+              "Refresh token reutilizado. Please make a new sign in request");
     }
 
-    return token;
+    // Dentro del margen de gracia otra solicitud (normalmente concurrente, del mismo
+    // cliente) ya recibió el sucesor: no se emite otro, para que un token robado no
+    // pueda canjearse repetidas veces sin que se detecte
+    throw new TokenRefreshConflictException(
+            "El refresh token ya fue rotado por otra solicitud, use el token recibido en ella");
   }
 
   @Override
-  @Transactional
   public int deleteByUserId(Integer userId) {
-    UserEntity userEntity = userRepository.findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    return refreshTokenStore.deleteByUserId(userId);
+  }
 
-    return refreshTokenRepository.deleteByUser(userEntity);
+  private IssuedToken issue(Integer userId, UUID familyId, Instant expiryDate) {
+    byte[] random = new byte[TOKEN_BYTES];
+    SECURE_RANDOM.nextBytes(random);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+    refreshTokenStore.save(new StoredToken(hash(token), userId, familyId, expiryDate, null));
+    return new IssuedToken(token, userId);
+  }
+
+  /**
+   * Calcula el digest SHA-256 del valor de un token.
+   *
+   * @param token el valor del token.
+   * @return el digest de 32 bytes.
+   */
+  static byte[] hash(String token) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 no disponible", e);
+    }
   }
 }
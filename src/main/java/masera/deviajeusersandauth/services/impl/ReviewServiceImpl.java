@@ -1,10 +1,19 @@
 package masera.deviajeusersandauth.services.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
 import masera.deviajeusersandauth.dtos.reviews.ReviewCreateRequest;
 import masera.deviajeusersandauth.dtos.reviews.ReviewDto;
 import masera.deviajeusersandauth.dtos.reviews.ReviewResponseCreateRequest;
@@ -13,11 +22,20 @@ import masera.deviajeusersandauth.dtos.reviews.ReviewStatsDto;
 import masera.deviajeusersandauth.entities.ReviewEntity;
 import masera.deviajeusersandauth.entities.ReviewResponseEntity;
 import masera.deviajeusersandauth.entities.UserEntity;
+import masera.deviajeusersandauth.exceptions.InvalidCursorException;
+import masera.deviajeusersandauth.exceptions.InvalidReviewCategoryException;
 import masera.deviajeusersandauth.exceptions.ResourceNotFoundException;
 import masera.deviajeusersandauth.repositories.ReviewRepository;
 import masera.deviajeusersandauth.repositories.ReviewResponseRepository;
+import masera.deviajeusersandauth.repositories.ReviewStatRepository;
 import masera.deviajeusersandauth.repositories.UserRepository;
+import masera.deviajeusersandauth.repositories.projections.ReviewRatingCount;
+import masera.deviajeusersandauth.repositories.projections.ReviewResponseCount;
+import masera.deviajeusersandauth.repositories.projections.ReviewResponseSummary;
+import masera.deviajeusersandauth.repositories.projections.ReviewSummary;
 import masera.deviajeusersandauth.services.interfaces.ReviewService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +49,19 @@ public class ReviewServiceImpl implements ReviewService {
   private final ReviewRepository reviewRepository;
   private final ReviewResponseRepository reviewResponseRepository;
   private final UserRepository userRepository;
+  private final ReviewStatRepository reviewStatRepository;
+  private final ReviewStatsCache reviewStatsCache;
+
+  private static final String CURSOR_SEPARATOR = ",";
+
+  @Value("${deviaje.app.reviews.pageSize:20}")
+  private int defaultPageSize;
+
+  @Value("${deviaje.app.reviews.maxPageSize:100}")
+  private int maxPageSize;
+
+  @Value("${deviaje.app.reviewStats.counters:true}")
+  private boolean statsFromCounters;
 
   @Override
   @Transactional
@@ -43,46 +74,58 @@ public class ReviewServiceImpl implements ReviewService {
             .user(user)
             .rating(request.getRating())
             .comment(request.getComment())
-            .category(ReviewEntity.ReviewCategory.valueOf(request.getCategory().toUpperCase()))
+            .category(parseCategory(request.getCategory()))
             .build();
 
     ReviewEntity savedReview = reviewRepository.save(review);
+    reviewStatRepository.increment(savedReview.getCategory().name(), savedReview.getRating(), 1);
+    reviewStatsCache.invalidate();
     return mapToDto(savedReview);
   }
 
   @Override
   @Transactional(readOnly = true)
-  public List<ReviewDto> getAllReviews() {
-    return reviewRepository.findAllByOrderByCreatedDatetimeDesc().stream()
-            .map(this::mapToDto)
-            .collect(Collectors.toList());
-  }
+  public CursorPage<ReviewDto> getReviews(String cursor, Integer size, String category,
+                                          Integer responses) {
+    int pageSize = size == null ? defaultPageSize : Math.clamp(size, 1, maxPageSize);
+    ReviewEntity.ReviewCategory categoryEnum = category == null || category.isEmpty()
+            ? null : parseCategory(category);
 
-  @Override
-  @Transactional(readOnly = true)
-  public List<ReviewDto> getReviewsByCategory(String category) {
-    ReviewEntity.ReviewCategory categoryEnum =
-            ReviewEntity.ReviewCategory.valueOf(category.toUpperCase());
-    return reviewRepository.findByCategoryOrderByCreatedDatetimeDesc(categoryEnum).stream()
-            .map(this::mapToDto)
-            .collect(Collectors.toList());
+    LocalDateTime afterCreated = null;
+    Long afterId = null;
+    if (cursor != null && !cursor.isEmpty()) {
+      String[] position = decodeCursor(cursor);
+      afterCreated = LocalDateTime.parse(position[0]);
+      afterId = Long.valueOf(position[1]);
+    }
+
+    // Se pide una review de más para saber si existe una página siguiente
+    List<ReviewSummary> reviews = reviewRepository.findPage(
+            categoryEnum, afterCreated, afterId, Limit.of(pageSize + 1));
+
+    boolean hasNext = reviews.size() > pageSize;
+    List<ReviewSummary> page = hasNext ? reviews.subList(0, pageSize) : reviews;
+    Integer responsesLimit = responses == null ? null : Math.max(responses, 0);
+
+    return CursorPage.<ReviewDto>builder()
+            .items(mapSummariesToDtos(page, responsesLimit))
+            .next(hasNext ? encodeCursor(page.getLast()) : null)
+            .build();
   }
 
   @Override
   @Transactional(readOnly = true)
   public List<ReviewDto> getReviewsByUser(Integer userId) {
-    return reviewRepository.findByUserIdOrderByCreatedDatetimeDesc(userId).stream()
-            .map(this::mapToDto)
-            .collect(Collectors.toList());
+    return mapSummariesToDtos(reviewRepository.findSummariesByUserId(userId), null);
   }
 
   @Override
   @Transactional(readOnly = true)
   public ReviewDto getReviewById(Long id) {
-    ReviewEntity review = reviewRepository.findById(id)
+    ReviewSummary review = reviewRepository.findSummaryById(id)
             .orElseThrow(() -> new ResourceNotFoundException(
                     "Review no encontrada con id: " + id));
-    return mapToDto(review);
+    return mapSummariesToDtos(List.of(review), null).getFirst();
   }
 
   @Override
@@ -97,6 +140,8 @@ public class ReviewServiceImpl implements ReviewService {
 
     // Luego eliminar la review
     reviewRepository.delete(review);
+    reviewStatRepository.increment(review.getCategory().name(), review.getRating(), -1);
+    reviewStatsCache.invalidate();
   }
 
   @Override
@@ -135,37 +180,171 @@ public class ReviewServiceImpl implements ReviewService {
   @Override
   @Transactional(readOnly = true)
   public ReviewStatsDto getReviewStats() {
-    Long totalReviews = reviewRepository.countAllReviews();
-    Double averageRating = reviewRepository.calculateAverageRating();
+    List<ReviewRatingCount> counts = statsFromCounters
+            ? reviewStatRepository.findAllCounts() : List.of();
+    if (counts.isEmpty()) {
+      // Contadores deshabilitados o todavía sin crear (la reconciliación los crea al
+      // iniciar): se agrupan las reviews en una sola consulta
+      counts = reviewRepository.countByCategoryAndRating();
+    }
+    return toStats(counts);
+  }
 
-    // Calcular promedio por categoría
-    Map<String, Double> averageByCategory = new HashMap<>();
-    for (ReviewEntity.ReviewCategory category : ReviewEntity.ReviewCategory.values()) {
-      Double avg = reviewRepository.calculateAverageRatingByCategory(category);
-      averageByCategory.put(category.name(), avg != null ? avg : 0.0);
+  /**
+   * Calcula las estadísticas a partir de la cantidad de reviews por categoría y rating,
+   * en una sola pasada de a lo sumo categorías por ratings filas.
+   */
+  static ReviewStatsDto toStats(List<ReviewRatingCount> counts) {
+    long totalReviews = 0;
+    long ratingSum = 0;
+    Map<ReviewEntity.ReviewCategory, long[]> byCategory =
+            new EnumMap<>(ReviewEntity.ReviewCategory.class);
+    // Mapas con orden fijo: el ETag de las estadísticas es un hash de su JSON
+    Map<Integer, Long> ratingDistribution = new LinkedHashMap<>();
+    for (int rating = 1; rating <= 5; rating++) {
+      ratingDistribution.put(rating, 0L);
     }
 
-    // Calcular distribución de ratings
-    Map<Integer, Long> ratingDistribution = new HashMap<>();
-    List<ReviewEntity> allReviews = reviewRepository.findAll();
-    for (int i = 1; i <= 5; i++) {
-      final int rating = i;
-      long count = allReviews.stream()
-              .filter(r -> r.getRating() == rating)
-              .count();
-      ratingDistribution.put(rating, count);
+    for (ReviewRatingCount count : counts) {
+      totalReviews += count.count();
+      ratingSum += count.rating() * count.count();
+      ratingDistribution.merge(count.rating(), count.count(), Long::sum);
+      // Cantidad y suma de ratings de la categoría
+      long[] category = byCategory.computeIfAbsent(count.category(), c -> new long[2]);
+      category[0] += count.count();
+      category[1] += count.rating() * count.count();
+    }
+
+    Map<String, Double> averageByCategory = new LinkedHashMap<>();
+    for (ReviewEntity.ReviewCategory category : ReviewEntity.ReviewCategory.values()) {
+      long[] sums = byCategory.get(category);
+      averageByCategory.put(category.name(),
+              sums == null || sums[0] == 0 ? 0.0 : (double) sums[1] / sums[0]);
     }
 
     return ReviewStatsDto.builder()
             .totalReviews(totalReviews)
-            .averageRating(averageRating != null ? averageRating : 0.0)
+            .averageRating(totalReviews == 0 ? 0.0 : (double) ratingSum / totalReviews)
             .averageRatingByCategory(averageByCategory)
             .ratingDistribution(ratingDistribution)
             .build();
   }
 
+  // Cursor de las reviews
+
+  /**
+   * El cursor es la posición (fecha de creación, id) de la última review de la página,
+   * codificada para que el cliente la trate como un valor opaco.
+   */
+  private static String encodeCursor(ReviewSummary last) {
+    String position = last.createdDatetime() + CURSOR_SEPARATOR + last.id();
+    return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String[] decodeCursor(String cursor) {
+    try {
+      String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = position.split(CURSOR_SEPARATOR, -1);
+      if (parts.length != 2) {
+        throw new InvalidCursorException("Cursor inválido");
+      }
+      // Se valida el formato antes de usarlo en la consulta
+      LocalDateTime.parse(parts[0]);
+      Long.parseLong(parts[1]);
+      return parts;
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new InvalidCursorException("Cursor inválido");
+    }
+  }
+
+  /**
+   * Convierte la categoría recibida, sin distinguir mayúsculas; una categoría que no
+   * existe es un error del cliente (400).
+   */
+  private static ReviewEntity.ReviewCategory parseCategory(String category) {
+    try {
+      return ReviewEntity.ReviewCategory.valueOf(category.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidReviewCategoryException("Categoría inválida: " + category);
+    }
+  }
+
   // Métodos auxiliares de mapeo
 
+  /**
+   * Convierte proyecciones de reviews a DTOs. Las respuestas de todas las reviews
+   * se traen en una sola consulta y se agrupan en memoria.
+   *
+   * @param responsesLimit cantidad máxima de respuestas por review, o null para
+   *                       incluirlas todas. Con un límite, el total de respuestas se
+   *                       obtiene con una consulta de conteo aparte.
+   */
+  private List<ReviewDto> mapSummariesToDtos(List<ReviewSummary> reviews,
+                                             Integer responsesLimit) {
+    if (reviews.isEmpty()) {
+      return List.of();
+    }
+    List<Long> reviewIds = reviews.stream().map(ReviewSummary::id).toList();
+    Map<Long, List<ReviewResponseDto>> responsesByReview = new HashMap<>();
+    List<ReviewResponseSummary> responseSummaries;
+    if (responsesLimit == null) {
+      responseSummaries = reviewResponseRepository.findSummariesByReviewIdIn(reviewIds);
+    } else if (responsesLimit > 0) {
+      responseSummaries =
+              reviewResponseRepository.findFirstSummariesByReviewIdIn(reviewIds, responsesLimit);
+    } else {
+      responseSummaries = List.of();
+    }
+    for (ReviewResponseSummary response : responseSummaries) {
+      responsesByReview.computeIfAbsent(response.reviewId(), id -> new ArrayList<>())
+              .add(mapResponseSummaryToDto(response));
+    }
+
+    Map<Long, Long> countsByReview = new HashMap<>();
+    if (responsesLimit != null) {
+      for (ReviewResponseCount count : reviewResponseRepository.countByReviewIdIn(reviewIds)) {
+        countsByReview.put(count.reviewId(), count.count());
+      }
+    }
+
+    List<ReviewDto> result = new ArrayList<>(reviews.size());
+    for (ReviewSummary review : reviews) {
+      List<ReviewResponseDto> responses =
+              responsesByReview.getOrDefault(review.id(), List.of());
+      result.add(ReviewDto.builder()
+              .id(review.id())
+              .userId(review.userId())
+              .username(review.username())
+              .userFirstName(review.userFirstName())
+              .userLastName(review.userLastName())
+              .rating(review.rating())
+              .comment(review.comment())
+              .category(review.category().name())
+              .createdDatetime(review.createdDatetime())
+              .lastUpdatedDatetime(review.lastUpdatedDatetime())
+              .responses(responses)
+              .responsesCount(responsesLimit == null ? responses.size()
+                      : countsByReview.getOrDefault(review.id(), 0L).intValue())
+              .build());
+    }
+    return result;
+  }
+
+  private ReviewResponseDto mapResponseSummaryToDto(ReviewResponseSummary response) {
+    return ReviewResponseDto.builder()
+            .id(response.id())
+            .reviewId(response.reviewId())
+            .userId(response.userId())
+            .username(response.username())
+            .userFirstName(response.userFirstName())
+            .userLastName(response.userLastName())
+            .comment(response.comment())
+            .createdDatetime(response.createdDatetime())
+            .lastUpdatedDatetime(response.lastUpdatedDatetime())
+            .build();
+  }
+
   private ReviewDto mapToDto(ReviewEntity review) {
     List<ReviewResponseDto> responses = review.getResponses().stream()
             .map(this::mapResponseToDto)
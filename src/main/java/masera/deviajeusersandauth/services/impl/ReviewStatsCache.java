@@ -0,0 +1,128 @@
+package masera.deviajeusersandauth.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import masera.deviajeusersandauth.dtos.reviews.ReviewStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Guarda las últimas estadísticas de reviews calculadas junto con su ETag.
+ * Un contador de versión se incrementa al crear o eliminar una review y deja
+ * desactualizada la copia guardada. Como otra instancia de la aplicación puede
+ * modificar las reviews sin que esta lo sepa, la copia vence además a los ttlMs.
+ * El ETag es un hash del JSON de las estadísticas: dos instancias con los mismos
+ * números devuelven el mismo ETag, y la CDN puede revalidar contra cualquiera.
+ */
+@Component
+public class ReviewStatsCache {
+
+  private final ObjectMapper objectMapper;
+
+  private final long ttlMs;
+
+  private final AtomicLong version = new AtomicLong();
+
+  private volatile Entry entry;
+
+  /**
+   * Estadísticas con su ETag.
+   *
+   * @param stats las estadísticas.
+   * @param etag el ETag fuerte, entre comillas.
+   */
+  public record Snapshot(ReviewStatsDto stats, String etag) {
+  }
+
+  private record Entry(Snapshot snapshot, long version, long loadedAt) {
+  }
+
+  /**
+   * Constructor del caché.
+   *
+   * @param objectMapper serializador con el que se calcula el ETag.
+   * @param ttlMs tiempo máximo que se usa una copia sin volver a calcularla.
+   */
+  public ReviewStatsCache(ObjectMapper objectMapper,
+                          @Value("${deviaje.app.reviewStats.cacheTtlMs:30000}") long ttlMs) {
+    this.objectMapper = objectMapper;
+    this.ttlMs = ttlMs;
+  }
+
+  /**
+   * Devuelve el ETag de la copia guardada, si sigue vigente.
+   *
+   * @return el ETag, o null si hay que volver a calcular las estadísticas.
+   */
+  public String currentEtag() {
+    Entry current = entry;
+    return isValid(current) ? current.snapshot().etag() : null;
+  }
+
+  /**
+   * Devuelve la copia guardada o, si no está vigente, la calcula. Las consultas
+   * concurrentes sin copia vigente esperan un único cálculo.
+   *
+   * @param loader calcula las estadísticas.
+   * @return las estadísticas con su ETag.
+   */
+  public Snapshot get(Supplier<ReviewStatsDto> loader) {
+    Entry current = entry;
+    if (isValid(current)) {
+      return current.snapshot();
+    }
+    synchronized (this) {
+      current = entry;
+      if (isValid(current)) {
+        return current.snapshot();
+      }
+      // La versión se lee antes de calcular: un cambio durante el cálculo deja la copia vencida
+      long loadedVersion = version.get();
+      ReviewStatsDto stats = loader.get();
+      Snapshot snapshot = new Snapshot(stats, etag(stats));
+      entry = new Entry(snapshot, loadedVersion, System.currentTimeMillis());
+      return snapshot;
+    }
+  }
+
+  /**
+   * Deja vencida la copia guardada. Dentro de una transacción se vuelve a hacer al
+   * confirmarla, para descartar lo que se haya calculado antes de que el cambio
+   * fuera visible.
+   */
+  public void invalidate() {
+    version.incrementAndGet();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          version.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  private boolean isValid(Entry current) {
+    return current != null && current.version() == version.get()
+            && System.currentTimeMillis() - current.loadedAt() < ttlMs;
+  }
+
+  private String etag(ReviewStatsDto stats) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+              .digest(objectMapper.writeValueAsBytes(stats));
+      return "\"" + Base64.getUrlEncoder().withoutPadding()
+              .encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("No se pudo calcular el ETag de las estadísticas", e);
+    }
+  }
+}
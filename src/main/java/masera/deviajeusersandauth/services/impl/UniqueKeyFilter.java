@@ -0,0 +1,248 @@
+package masera.deviajeusersandauth.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.text.Normalizer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import masera.deviajeusersandauth.repositories.PassportRepository;
+import masera.deviajeusersandauth.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Pre-chequeo en memoria de unicidad de username, email y número de pasaporte.
+ * Cada campo tiene un filtro de Bloom con todos los valores existentes: si el filtro
+ * dice que un valor no está, seguro no existe y no se consulta la base de datos; si
+ * dice que puede estar, se confirma con la base de datos.
+ * Los filtros se arman al iniciar recorriendo las columnas y se actualizan en cada alta
+ * o modificación; los valores agregados entre reconstrucciones se guardan aparte para
+ * no perder los que todavía no estaban confirmados al recorrer la tabla. Un valor que
+ * deja de usarse sigue en el filtro y solo produce un falso positivo, por eso no hace
+ * falta soportar borrados; la reconstrucción periódica los descarta.
+ * Mientras un filtro no está listo todas las consultas van a la base de datos.
+ * Cada instancia tiene sus propios filtros y no ve las altas de las demás: solo se
+ * usan en las verificaciones de {@code /api/validation}, que son orientativas. Las
+ * altas y modificaciones consultan siempre la base de datos.
+ */
+@Component
+public class UniqueKeyFilter {
+
+  private static final Logger logger = LoggerFactory.getLogger(UniqueKeyFilter.class);
+
+  /**
+   * Campos con restricción de unicidad.
+   */
+  public enum Field {
+    USERNAME, EMAIL, PASSPORT_NUMBER
+  }
+
+  private final Map<Field, Slot> slots = new EnumMap<>(Field.class);
+
+  private final UserRepository userRepository;
+
+  private final PassportRepository passportRepository;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final long expectedInsertions;
+
+  private final double falsePositiveRate;
+
+  /**
+   * Constructor del filtro.
+   *
+   * @param userRepository repositorio de usuarios.
+   * @param passportRepository repositorio de pasaportes.
+   * @param transactionManager administrador de transacciones.
+   * @param expectedInsertions cantidad mínima de valores para la que se dimensiona cada filtro.
+   * @param falsePositiveRate tasa de falsos positivos buscada.
+   * @param meterRegistry registro de métricas.
+   */
+  public UniqueKeyFilter(UserRepository userRepository,
+                         PassportRepository passportRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${deviaje.app.uniqueness.expectedInsertions:1000000}")
+                         long expectedInsertions,
+                         @Value("${deviaje.app.uniqueness.falsePositiveRate:0.01}")
+                         double falsePositiveRate,
+                         MeterRegistry meterRegistry) {
+    this.userRepository = userRepository;
+    this.passportRepository = passportRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+    for (Field field : Field.values()) {
+      slots.put(field, new Slot(field, meterRegistry));
+    }
+  }
+
+  /**
+   * Indica si un valor ya existe, consultando la base de datos solo si el filtro
+   * no puede descartarlo.
+   *
+   * @param field el campo.
+   * @param value el valor a verificar.
+   * @param database consulta de existencia en la base de datos.
+   * @return true si el valor existe.
+   */
+  public boolean exists(Field field, String value, Predicate<String> database) {
+    Slot slot = slots.get(field);
+    BloomFilter filter = slot.current;
+    if (filter != null && value != null && !filter.mightContain(normalize(value))) {
+      slot.definitelyAbsent.increment();
+      return false;
+    }
+
+    boolean exists = database.test(value);
+    if (filter != null) {
+      (exists ? slot.confirmed : slot.falsePositives).increment();
+    }
+    return exists;
+  }
+
+  /**
+   * Registra un valor nuevo. Debe llamarse antes de confirmar la transacción que lo
+   * guarda, así una consulta concurrente nunca lo descarta por error.
+   *
+   * @param field el campo.
+   * @param value el valor.
+   */
+  public void add(Field field, String value) {
+    if (value == null) {
+      return;
+    }
+    Slot slot = slots.get(field);
+    String key = normalize(value);
+    slot.recentKeys.add(key);
+    BloomFilter current = slot.current;
+    BloomFilter building = slot.building;
+    if (current != null) {
+      current.put(key);
+    }
+    if (building != null) {
+      building.put(key);
+    }
+  }
+
+  /**
+   * Arma los filtros al iniciar la aplicación.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    rebuild(Field.USERNAME, userRepository::count, userRepository::streamAllUsernames);
+    rebuild(Field.EMAIL, userRepository::count, userRepository::streamAllEmails);
+    rebuild(Field.PASSPORT_NUMBER, passportRepository::count,
+            passportRepository::streamAllPassportNumbers);
+  }
+
+  /**
+   * Reconstruye los filtros para descartar valores que ya no se usan y
+   * redimensionarlos según la cantidad actual de registros.
+   */
+  @Scheduled(cron = "${deviaje.app.uniqueness.rebuildCron:0 30 4 * * *}")
+  public void scheduledRebuild() {
+    build();
+  }
+
+  private void rebuild(Field field, Supplier<Long> count, Supplier<Stream<String>> values) {
+    Slot slot = slots.get(field);
+    try {
+      // Se deja margen para crecer hasta la próxima reconstrucción
+      BloomFilter filter = new BloomFilter(Math.max(expectedInsertions, count.get() * 2),
+              falsePositiveRate);
+      // Las altas concurrentes se agregan también al filtro nuevo mientras se arma
+      slot.building = filter;
+      long loaded = transactionTemplate.execute(status -> {
+        try (Stream<String> stream = values.get()) {
+          return stream.peek(value -> filter.put(normalize(value))).count();
+        }
+      });
+      // Valores agregados desde la última reconstrucción cuya transacción pudo no estar
+      // confirmada cuando se leyó la tabla
+      for (String key = slot.recentKeys.poll(); key != null; key = slot.recentKeys.poll()) {
+        filter.put(key);
+      }
+      slot.current = filter;
+      logger.info("Filtro de unicidad {}: {} valores, {} KB", field, loaded,
+              filter.sizeInBytes() / 1024);
+    } catch (RuntimeException e) {
+      logger.error("No se pudo armar el filtro de unicidad {}", field, e);
+    } finally {
+      slot.building = null;
+    }
+  }
+
+  /**
+   * Normaliza un valor para que las variantes que la base de datos considera iguales
+   * (mayúsculas, acentos, espacios finales) compartan la misma clave en el filtro.
+   *
+   * @param value el valor.
+   * @return la clave normalizada.
+   */
+  static String normalize(String value) {
+    String withoutAccents = Normalizer.normalize(value.strip(), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "");
+    return withoutAccents.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Filtro y métricas de un campo.
+   */
+  private static final class Slot {
+
+    private volatile BloomFilter current;
+
+    private volatile BloomFilter building;
+
+    private final Queue<String> recentKeys = new ConcurrentLinkedQueue<>();
+
+    private final Counter definitelyAbsent;
+
+    private final Counter confirmed;
+
+    private final Counter falsePositives;
+
+    private Slot(Field field, MeterRegistry meterRegistry) {
+      String tag = field.name().toLowerCase(Locale.ROOT);
+      this.definitelyAbsent = checks(meterRegistry, tag, "absent");
+      this.confirmed = checks(meterRegistry, tag, "present");
+      this.falsePositives = checks(meterRegistry, tag, "false_positive");
+      Gauge.builder("deviaje.uniqueness.filter.bytes", this,
+                      slot -> slot.current == null ? 0 : slot.current.sizeInBytes())
+              .description("Memoria ocupada por el filtro de unicidad")
+              .tag("field", tag)
+              .baseUnit("bytes")
+              .register(meterRegistry);
+      Gauge.builder("deviaje.uniqueness.filter.expected.fpp", this,
+                      slot -> slot.current == null ? 1 : slot.current.expectedFalsePositiveRate())
+              .description("Tasa de falsos positivos estimada del filtro de unicidad")
+              .tag("field", tag)
+              .register(meterRegistry);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String field, String result) {
+      return Counter.builder("deviaje.uniqueness.checks")
+              .description("Verificaciones de unicidad por resultado; false_positive sobre "
+                      + "(false_positive + present) es la tasa observada de falsos positivos")
+              .tag("field", field)
+              .tag("result", result)
+              .register(meterRegistry);
+    }
+  }
+}
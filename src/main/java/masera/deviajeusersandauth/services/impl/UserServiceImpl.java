@@ -1,14 +1,25 @@
 package masera.deviajeusersandauth.services.impl;
 
+import jakarta.persistence.EntityManager;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import masera.deviajeusersandauth.dtos.get.PassportDto;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
 import masera.deviajeusersandauth.dtos.get.UserDto;
+import masera.deviajeusersandauth.dtos.get.UserFilter;
 import masera.deviajeusersandauth.dtos.post.users.PassportRequest;
 import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
 import masera.deviajeusersandauth.dtos.post.users.UserBase;
@@ -19,22 +30,36 @@ import masera.deviajeusersandauth.entities.PassportEntity;
 import masera.deviajeusersandauth.entities.RoleEntity;
 import masera.deviajeusersandauth.entities.UserEntity;
 import masera.deviajeusersandauth.entities.UserRoleEntity;
+import masera.deviajeusersandauth.events.UserChangedEvent;
 import masera.deviajeusersandauth.exceptions.EmailAlreadyExistsException;
 import masera.deviajeusersandauth.exceptions.PassportAlreadyExistsException;
 import masera.deviajeusersandauth.exceptions.ResourceNotFoundException;
 import masera.deviajeusersandauth.exceptions.UsernameAlreadyExistsException;
+import masera.deviajeusersandauth.mappers.PassportMapper;
+import masera.deviajeusersandauth.mappers.UserMapper;
 import masera.deviajeusersandauth.repositories.PassportRepository;
 import masera.deviajeusersandauth.repositories.RoleRepository;
 import masera.deviajeusersandauth.repositories.UserRepository;
 import masera.deviajeusersandauth.repositories.UserRoleRepository;
+import masera.deviajeusersandauth.repositories.projections.PassportSummary;
+import masera.deviajeusersandauth.repositories.projections.UserRoleName;
+import masera.deviajeusersandauth.repositories.projections.UserSummary;
+import masera.deviajeusersandauth.security.crypto.BoundedPasswordEncoder;
+import masera.deviajeusersandauth.security.jwt.JwtTokenCache;
+import masera.deviajeusersandauth.services.impl.UniqueKeyFilter.Field;
 import masera.deviajeusersandauth.services.interfaces.EmailService;
 import masera.deviajeusersandauth.services.interfaces.UserService;
 import org.modelmapper.ModelMapper;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Implementación del servicio de usuario que maneja la lógica de negocio
@@ -53,12 +78,32 @@ public class UserServiceImpl implements UserService {
 
   private final PassportRepository passportRepository;
 
-  private final PasswordEncoder passwordEncoder;
+  private final BoundedPasswordEncoder passwordEncoder;
 
   private final ModelMapper modelMapper;
 
+  private final UserMapper userMapper;
+
+  private final PassportMapper passportMapper;
+
+  private final VerificationService verificationService;
+
   private final EmailService emailService;
 
+  private final JwtTokenCache jwtTokenCache;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final EntityManager entityManager;
+
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${deviaje.app.users.pageSize:50}")
+  private int defaultPageSize;
+
+  @Value("${deviaje.app.users.maxPageSize:200}")
+  private int maxPageSize;
+
   private static final String PASSWORD_CHARS =
           "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789@#$%&*!";
 
@@ -79,14 +124,15 @@ public class UserServiceImpl implements UserService {
   public UserDto createUser(UserCreateRequest userCreateRequest) {
 
     validateUser(userCreateRequest);
+    registerUniqueKeys(userCreateRequest);
 
-    UserEntity userEntity = modelMapper.map(userCreateRequest, UserEntity.class);
+    UserEntity userEntity = userMapper.toEntity(userCreateRequest);
     userEntity.setPassword(passwordEncoder.encode(userCreateRequest.getPassword()));
     userEntity.setIsTemporaryPassword(true);
     userEntity.setActive(true);
     userEntity.setCreatedUser(userCreateRequest.getCreatedUser());
     userEntity.setLastUpdatedUser(userCreateRequest.getCreatedUser());
-    UserEntity userSaved = userRepository.save(userEntity);
+    UserEntity userSaved = saveUnique(() -> userRepository.save(userEntity));
 
     if (userCreateRequest.getRoleIds() != null && !userCreateRequest.getRoleIds().isEmpty()) {
       for (Integer roleId : userCreateRequest.getRoleIds()) {
@@ -106,16 +152,15 @@ public class UserServiceImpl implements UserService {
 
 
     if (userCreateRequest.getPassport() != null) {
-      PassportEntity passport = modelMapper.map(
-              userCreateRequest.getPassport(), PassportEntity.class);
+      PassportEntity passport = passportMapper.toEntity(userCreateRequest.getPassport());
       passport.setUser(userSaved);
       passport.setCreatedUser(userCreateRequest.getCreatedUser());
-      passportRepository.save(passport);
+      saveUnique(() -> passportRepository.save(passport));
     }
 
     try {
       emailService.sendRegistrationEmail(userEntity, userCreateRequest.getPassword());
-      logger.info("Email de notificación enviado al usuario creado "
+      logger.info("Email de notificación encolado para el usuario creado "
               + "por administrador: {}", userEntity.getEmail());
     } catch (Exception e) {
       logger.error("Error al enviar email de notificación: {}", e.getMessage(), e);
@@ -125,17 +170,40 @@ public class UserServiceImpl implements UserService {
   }
 
   @Override
-  @Transactional
   public MessageResponse registerUser(SignupRequest signupRequest) {
+    try {
+      return registerUserAsync(signupRequest).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Valida el usuario en el hilo de la solicitud, hashea la contraseña en el pool
+   * de hasheo y lo guarda, en una transacción propia, en el executor de tareas
+   * asíncronas.
+   */
+  @Override
+  public CompletableFuture<MessageResponse> registerUserAsync(SignupRequest signupRequest) {
     validateUser(signupRequest);
 
-    UserEntity userEntity = modelMapper.map(signupRequest, UserEntity.class);
-    userEntity.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
-    userEntity.setIsTemporaryPassword(false);
-    userEntity.setActive(true);
+    return passwordEncoder.encodeAsync(signupRequest.getPassword())
+            .thenApply(encodedPassword -> transactionTemplate.execute(status ->
+                    saveSignup(signupRequest, encodedPassword)));
+  }
+
+  private MessageResponse saveSignup(SignupRequest signupRequest, String encodedPassword) {
+    registerUniqueKeys(signupRequest);
+
+    UserEntity newUser = userMapper.toEntity(signupRequest);
+    newUser.setPassword(encodedPassword);
+    newUser.setIsTemporaryPassword(false);
+    newUser.setActive(true);
 
-    userEntity.setId(null);
-    userEntity = userRepository.save(userEntity);
+    UserEntity userEntity = saveUnique(() -> userRepository.save(newUser));
 
     RoleEntity roleEntity = roleRepository.findByDescription("CLIENTE")
             .orElseThrow(() -> new RuntimeException("Error: Rol CLIENTE no se encontró"));
@@ -149,15 +217,15 @@ public class UserServiceImpl implements UserService {
     userRoleRepository.save(userRole);
 
     if (signupRequest.getPassport() != null) {
-      PassportEntity passport = modelMapper.map(signupRequest.getPassport(), PassportEntity.class);
+      PassportEntity passport = passportMapper.toEntity(signupRequest.getPassport());
       passport.setUser(userEntity);
-      passportRepository.save(passport);
+      saveUnique(() -> passportRepository.save(passport));
     }
 
     // Enviar email de confirmación
     try {
       emailService.sendRegistrationEmail(userEntity);
-      logger.info("Email de confirmación enviado exitosamente a: {}", userEntity.getEmail());
+      logger.info("Email de confirmación encolado para: {}", userEntity.getEmail());
     } catch (Exception e) {
       // Log el error pero no interrumpir el flujo de registro
       logger.error("Error al enviar email de confirmación: {}", e.getMessage(), e);
@@ -181,6 +249,7 @@ public class UserServiceImpl implements UserService {
         throw new UsernameAlreadyExistsException(
                 "Este nombre de usuario ya está en uso");
       }
+      verificationService.claim(Field.USERNAME, request.getUsername());
       user.setUsername(request.getUsername());
     }
 
@@ -190,6 +259,7 @@ public class UserServiceImpl implements UserService {
         throw new EmailAlreadyExistsException(
                 "Este correo electrónico ya está registrado");
       }
+      verificationService.claim(Field.EMAIL, request.getEmail());
       user.setEmail(request.getEmail());
     }
 
@@ -236,6 +306,7 @@ public class UserServiceImpl implements UserService {
             throw new PassportAlreadyExistsException(
                     "Este número de pasaporte ya está registrado");
           }
+          verificationService.claim(Field.PASSPORT_NUMBER, passportRequest.getPassportNumber());
           passport.setPassportNumber(passportRequest.getPassportNumber());
         }
 
@@ -262,13 +333,16 @@ public class UserServiceImpl implements UserService {
           }
         }
 
-        PassportEntity newPassport = modelMapper.map(passportRequest, PassportEntity.class);
+        verificationService.claim(Field.PASSPORT_NUMBER, passportRequest.getPassportNumber());
+        PassportEntity newPassport = passportMapper.toEntity(passportRequest);
         newPassport.setUser(user);
-        passportRepository.save(newPassport);
+        saveUnique(() -> passportRepository.save(newPassport));
       }
     }
 
-    userRepository.save(user);
+    // Se escribe antes de confirmar para traducir un valor único repetido
+    saveUnique(() -> userRepository.saveAndFlush(user));
+    eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
     logger.info("Usuario {} actualizado exitosamente", user.getUsername());
     return mapUserToUserResponse(user);
@@ -290,7 +364,63 @@ public class UserServiceImpl implements UserService {
   }
 
   /**
-   * Valida si el username ya existe en la base de datos.
+   * Registra como ocupados los valores únicos de un usuario nuevo, antes de guardarlo.
+   *
+   * @param userBase usuario a registrar.
+   */
+  private void registerUniqueKeys(UserBase userBase) {
+    verificationService.claim(Field.USERNAME, userBase.getUsername());
+    verificationService.claim(Field.EMAIL, userBase.getEmail());
+    if (userBase.getPassport() != null) {
+      verificationService.claim(Field.PASSPORT_NUMBER, userBase.getPassport().getPassportNumber());
+    }
+  }
+
+  /**
+   * Ejecuta una escritura de usuario o pasaporte. Si la base de datos rechaza un valor
+   * único repetido (otra solicitud lo registró después de la validación), lanza la
+   * excepción del campo repetido en lugar del error de integridad.
+   *
+   * @param write la escritura.
+   * @return lo que devuelve la escritura.
+   */
+  private <T> T saveUnique(Supplier<T> write) {
+    try {
+      return write.get();
+    } catch (DataIntegrityViolationException e) {
+      throw duplicateKey(e);
+    }
+  }
+
+  private RuntimeException duplicateKey(DataIntegrityViolationException e) {
+    String constraint = e.getCause() instanceof ConstraintViolationException violation
+            && violation.getConstraintName() != null
+            ? violation.getConstraintName() : e.getMostSpecificCause().getMessage();
+    if (constraint == null) {
+      return e;
+    }
+    // Se descartan los valores del mensaje para no confundirlos con el nombre del campo
+    constraint = constraint.toLowerCase(Locale.ROOT);
+    int values = constraint.indexOf(" values");
+    if (values >= 0) {
+      constraint = constraint.substring(0, values);
+    }
+    if (constraint.contains("passport")) {
+      return new PassportAlreadyExistsException("Este número de pasaporte ya está registrado");
+    }
+    if (constraint.contains("email")) {
+      return new EmailAlreadyExistsException("Este correo electrónico ya está registrado");
+    }
+    if (constraint.contains("username")) {
+      return new UsernameAlreadyExistsException("Este nombre de usuario ya está en uso");
+    }
+    return e;
+  }
+
+  /**
+   * Valida si el username ya existe en la base de datos. Las altas y modificaciones
+   * consultan siempre la base: el filtro de unicidad es local a cada instancia y solo
+   * se usa en las verificaciones de {@code /api/validation}.
    *
    * @param username nombre de usuario a validar.
    */
@@ -441,35 +571,70 @@ public class UserServiceImpl implements UserService {
   }*/
 
   @Override
+  @Transactional(readOnly = true)
   public UserDto getUserById(Integer id) {
-    UserEntity user = userRepository.findByIdWithRoles(id)
+    UserSummary user = userRepository.findSummaryById(id)
             .orElseThrow(() -> new ResourceNotFoundException(
                     "Usuario no encontrado con el id: " + id));
 
-    return mapUserToUserResponse(user);
+    return mapSummariesToUserResponses(List.of(user)).getFirst();
   }
 
   @Override
+  @Transactional(readOnly = true)
   public UserDto getUserByUsername(String username) {
-    UserEntity userEntity = userRepository.findByUsername(username)
+    UserSummary user = userRepository.findSummaryByUsername(username)
             .orElseThrow(() -> new ResourceNotFoundException(
                     "Usuario no encontrado con username: " + username));
 
-    return mapUserToUserResponse(userEntity);
+    return mapSummariesToUserResponses(List.of(user)).getFirst();
+  }
+
+  @Override
+  public CursorPage<UserDto> getUsers(Integer cursor, Integer size, UserFilter filter) {
+    int pageSize = size == null ? defaultPageSize : Math.clamp(size, 1, maxPageSize);
+    UserFilter filters = filter == null ? new UserFilter() : filter;
+
+    // Se pide un usuario de más para saber si existe una página siguiente
+    List<UserEntity> users = userRepository.findPageAfter(
+            cursor == null ? 0 : cursor,
+            filters.getActive(),
+            filters.getRole(),
+            filters.getCreatedFrom() == null ? null : filters.getCreatedFrom().atStartOfDay(),
+            filters.getCreatedTo() == null
+                    ? null : filters.getCreatedTo().plusDays(1).atStartOfDay(),
+            Limit.of(pageSize + 1));
+
+    boolean hasNext = users.size() > pageSize;
+    List<UserDto> items = mapUsersToUserResponses(hasNext ? users.subList(0, pageSize) : users);
+
+    return CursorPage.<UserDto>builder()
+            .items(items)
+            .next(hasNext ? String.valueOf(items.getLast().getId()) : null)
+            .build();
   }
 
   @Override
-  public List<UserDto> getAllUsers() {
-    return userRepository.findAll().stream()
-            .map(this::mapUserToUserResponse)
-            .collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public void exportUsers(Consumer<List<UserDto>> chunkConsumer) {
+    List<UserEntity> chunk = new ArrayList<>(UserRepository.EXPORT_FETCH_SIZE);
+    try (Stream<UserEntity> users = userRepository.streamAllForExport()) {
+      Iterator<UserEntity> iterator = users.iterator();
+      while (iterator.hasNext()) {
+        chunk.add(iterator.next());
+        if (chunk.size() == UserRepository.EXPORT_FETCH_SIZE || !iterator.hasNext()) {
+          chunkConsumer.accept(mapUsersToUserResponses(chunk));
+          chunk.clear();
+          // Se liberan las entidades ya exportadas del contexto de persistencia
+          entityManager.clear();
+        }
+      }
+    }
   }
 
   @Override
   public List<UserDto> getUsersByRole(String role) {
-    return userRepository.findAllByRoleName(role).stream()
-            .map(this::mapUserToUserResponse)
-            .collect(Collectors.toList());
+    return mapUsersToUserResponses(userRepository.findAllByRoleName(role));
   }
 
   @Override
@@ -480,6 +645,7 @@ public class UserServiceImpl implements UserService {
 
     user.setActive(true);
     userRepository.save(user);
+    eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
   }
 
   @Override
@@ -490,6 +656,10 @@ public class UserServiceImpl implements UserService {
 
     user.setActive(false);
     userRepository.save(user);
+    eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+
+    // Los tokens ya emitidos dejan de ser aceptados
+    jwtTokenCache.invalidateUser(user.getUsername());
   }
 
   /**
@@ -518,13 +688,14 @@ public class UserServiceImpl implements UserService {
     user.setLastUpdatedDatetime(LocalDateTime.now());
 
     userRepository.save(user);
+    eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
     logger.info("💾 Usuario {} actualizado con contraseña temporal", user.getUsername());
 
     // Enviar email con contraseña temporal
     try {
       emailService.sendPasswordResetByAdminEmail(user, temporaryPassword);
-      logger.info("✅ Email de reseteo enviado exitosamente a: {}", user.getEmail());
+      logger.info("✅ Email de reseteo encolado para: {}", user.getEmail());
     } catch (Exception e) {
       logger.error("❌ Error al enviar email de reseteo: {}", e.getMessage(), e);
       // No lanzar excepción para que el reseteo se complete aunque falle el email
@@ -586,30 +757,63 @@ public class UserServiceImpl implements UserService {
   }
 
   private UserDto mapUserToUserResponse(UserEntity user) {
+    return mapUsersToUserResponses(List.of(user)).getFirst();
+  }
+
+  private List<UserDto> mapUsersToUserResponses(List<UserEntity> users) {
+    return mapSummariesToUserResponses(users.stream().map(UserSummary::of).toList());
+  }
+
+  /**
+   * Convierte una lista de usuarios a DTOs. Los roles y pasaportes de todos los
+   * usuarios se cargan con una consulta cada uno y se asignan en memoria, por lo que
+   * la cantidad de consultas no depende del tamaño de la lista.
+   *
+   * @param users los usuarios a convertir.
+   * @return los DTOs en el mismo orden.
+   */
+  private List<UserDto> mapSummariesToUserResponses(List<UserSummary> users) {
+    if (users.isEmpty()) {
+      return List.of();
+    }
+    List<Integer> userIds = users.stream().map(UserSummary::id).toList();
+
+    Map<Integer, List<String>> rolesByUser = new HashMap<>();
+    for (UserRoleName userRole : userRoleRepository.findRoleNamesByUserIdIn(userIds)) {
+      rolesByUser.computeIfAbsent(userRole.userId(), id -> new ArrayList<>())
+              .add(userRole.role());
+    }
+
+    Map<Integer, PassportSummary> passportByUser = new HashMap<>();
+    for (PassportSummary passport : passportRepository.findSummariesByUserIdIn(userIds)) {
+      passportByUser.put(passport.userId(), passport);
+    }
+
+    List<UserDto> result = new ArrayList<>(users.size());
+    for (UserSummary user : users) {
+      result.add(buildUserDto(user, rolesByUser.getOrDefault(user.id(), List.of()),
+              passportByUser.get(user.id())));
+    }
+    return result;
+  }
+
+  private UserDto buildUserDto(UserSummary user, List<String> roles, PassportSummary passport) {
     UserDto.UserDtoBuilder builder = UserDto.builder()
-            .id(user.getId())
-            .username(user.getUsername())
-            .email(user.getEmail())
-            .firstName(user.getFirstName())
-            .lastName(user.getLastName())
-            .gender(user.getGender())
-            .phone(user.getPhone())
-            .countryCallingCode(user.getCountryCallingCode())
-            .birthDate(user.getBirthDate())
-            .active(user.getActive())
-            .avatarUrl(user.getAvatarUrl());
-
-    // Add roles
-    List<String> roles = userRoleRepository.findByUserIdWithRole(user.getId()).stream()
-            .map(userRole -> userRole.getRole().getDescription())
-            .collect(Collectors.toList());
-
-    builder.roles(roles);
-
-    Optional<PassportEntity> passport = passportRepository.findByUser(user);
-    if (passport.isPresent()) {
-      PassportDto passportDto = modelMapper.map(passport.get(), PassportDto.class);
-      builder.passport(passportDto);
+            .id(user.id())
+            .username(user.username())
+            .email(user.email())
+            .firstName(user.firstName())
+            .lastName(user.lastName())
+            .gender(user.gender())
+            .phone(user.phone())
+            .countryCallingCode(user.countryCallingCode())
+            .birthDate(user.birthDate())
+            .active(user.active())
+            .avatarUrl(user.avatarUrl())
+            .roles(roles);
+
+    if (passport != null) {
+      builder.passport(passportMapper.toDto(passport));
     }
 
     return builder.build();
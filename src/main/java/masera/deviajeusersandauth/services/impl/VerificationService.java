@@ -1,22 +1,63 @@
 package masera.deviajeusersandauth.services.impl;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.function.Predicate;
 import masera.deviajeusersandauth.repositories.PassportRepository;
 import masera.deviajeusersandauth.repositories.UserRepository;
+import masera.deviajeusersandauth.services.impl.UniqueKeyFilter.Field;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Implementación de la interfaz VerificationService,
  * contiene la lógica de verificación.
+ * Los resultados se guardan unos segundos por valor normalizado y las consultas
+ * concurrentes por un mismo valor esperan una única consulta a la base de datos.
  */
 @Service
-@RequiredArgsConstructor
 public class VerificationService {
 
   private final UserRepository userRepository;
 
   private final PassportRepository passportRepository;
 
+  private final UniqueKeyFilter uniqueKeyFilter;
+
+  private final Cache<LookupKey, Boolean> results;
+
+  /**
+   * Constructor del servicio.
+   *
+   * @param userRepository repositorio de usuarios.
+   * @param passportRepository repositorio de pasaportes.
+   * @param uniqueKeyFilter filtro de unicidad en memoria.
+   * @param ttlMs tiempo que se guarda cada resultado.
+   * @param maxSize cantidad máxima de resultados guardados.
+   * @param meterRegistry registro de métricas.
+   */
+  public VerificationService(UserRepository userRepository,
+                             PassportRepository passportRepository,
+                             UniqueKeyFilter uniqueKeyFilter,
+                             @Value("${deviaje.app.validation.cacheTtlMs:5000}") long ttlMs,
+                             @Value("${deviaje.app.validation.cacheMaxSize:10000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+    this.userRepository = userRepository;
+    this.passportRepository = passportRepository;
+    this.uniqueKeyFilter = uniqueKeyFilter;
+    this.results = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, results, "validation.lookups");
+  }
 
   /**
    * Verifica si el nombre de usuario es único.
@@ -25,7 +66,7 @@ public class VerificationService {
    * @return {@code true} si el nombre de usuario es único, {@code false} en caso contrario.
    */
   public boolean isUsernameUnique(String username) {
-    return !userRepository.existsByUsername(username);
+    return !exists(Field.USERNAME, username, userRepository::existsByUsername);
   }
 
   /**
@@ -35,7 +76,7 @@ public class VerificationService {
    * @return {@code true} si el correo electrónico es único, {@code false} en caso contrario.
    */
   public boolean isEmailUnique(String email) {
-    return !userRepository.existsByEmail(email);
+    return !exists(Field.EMAIL, email, userRepository::existsByEmail);
   }
 
   /**
@@ -46,6 +87,44 @@ public class VerificationService {
    *{@code false} en caso contrario.
    */
   public boolean isPassportUnique(String passportNumber) {
-    return !passportRepository.existsByPassportNumber(passportNumber);
+    return !exists(Field.PASSPORT_NUMBER, passportNumber,
+            passportRepository::existsByPassportNumber);
+  }
+
+  /**
+   * Registra que un valor pasa a estar en uso: lo agrega al filtro de unicidad y
+   * descarta el resultado guardado, ahora y al confirmarse la transacción actual
+   * (una verificación concurrente pudo volver a guardar "único" antes del commit).
+   *
+   * @param field el campo.
+   * @param value el valor.
+   */
+  public void claim(Field field, String value) {
+    if (value == null) {
+      return;
+    }
+    uniqueKeyFilter.add(field, value);
+    LookupKey key = new LookupKey(field, UniqueKeyFilter.normalize(value));
+    results.invalidate(key);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          results.invalidate(key);
+        }
+      });
+    }
+  }
+
+  private boolean exists(Field field, String value, Predicate<String> database) {
+    if (value == null) {
+      return uniqueKeyFilter.exists(field, null, database);
+    }
+    // Caffeine calcula una sola vez por clave: las llamadas concurrentes esperan ese resultado
+    return results.get(new LookupKey(field, UniqueKeyFilter.normalize(value)),
+            key -> uniqueKeyFilter.exists(field, value, database));
+  }
+
+  private record LookupKey(Field field, String value) {
   }
 }
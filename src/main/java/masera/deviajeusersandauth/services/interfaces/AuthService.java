@@ -1,5 +1,6 @@
 package masera.deviajeusersandauth.services.interfaces;
 
+import java.util.concurrent.CompletableFuture;
 import masera.deviajeusersandauth.dtos.post.LoginRequest;
 import masera.deviajeusersandauth.dtos.post.RefreshTokenRequest;
 import masera.deviajeusersandauth.dtos.responses.JwtResponse;
@@ -21,6 +22,15 @@ public interface AuthService {
    */
   JwtResponse authenticateUser(LoginRequest loginRequest);
 
+  /**
+   * Metodo para autenticar un usuario comparando la contraseña en el pool dedicado
+   * de hasheo, liberando el hilo de la solicitud mientras tanto.
+   *
+   * @param loginRequest clase que contiene los datos de inicio de sesión (username y password).
+   * @return un futuro con el {@link JwtResponse}.
+   */
+  CompletableFuture<JwtResponse> authenticateUserAsync(LoginRequest loginRequest);
+
 
   /**
    * Metodo para refrescar el token JWT.
@@ -11,7 +11,8 @@ import org.springframework.stereotype.Service;
 public interface EmailService {
 
   /**
-   * Envía un correo electrónico de forma asíncrona.
+   * Encola un correo electrónico para enviarlo en segundo plano. Si se llama
+   * dentro de una transacción, el correo solo se envía si la transacción se confirma.
    *
    * @param to destinatario del correo electrónico
    * @param subject asunto del correo electrónico
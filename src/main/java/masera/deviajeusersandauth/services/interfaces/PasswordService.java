@@ -1,5 +1,6 @@
 package masera.deviajeusersandauth.services.interfaces;
 
+import java.util.concurrent.CompletableFuture;
 import masera.deviajeusersandauth.dtos.post.ForgotPasswordRequest;
 import masera.deviajeusersandauth.dtos.post.PasswordChangeRequest;
 import masera.deviajeusersandauth.dtos.post.ResetPasswordRequest;
@@ -13,13 +14,14 @@ import org.springframework.stereotype.Service;
 public interface PasswordService {
 
   /**
-   * Cambia la contraseña del usuario.
+   * Cambia la contraseña del usuario. La comparación y el hasheo se hacen en el
+   * pool dedicado sin bloquear el hilo de la solicitud.
    *
    * @param userId id del usuario cuya contraseña se cambiará.
    * @param request Contiene la nueva contraseña y la contraseña actual.
-   * @return Respuesta con el resultado de la operación.
+   * @return un futuro con la respuesta con el resultado de la operación.
    */
-  MessageResponse changePassword(Integer userId, PasswordChangeRequest request);
+  CompletableFuture<MessageResponse> changePassword(Integer userId, PasswordChangeRequest request);
 
   /**
    * Inicia el proceso de recuperación de contraseña.
@@ -30,10 +32,11 @@ public interface PasswordService {
   MessageResponse forgotPassword(ForgotPasswordRequest request);
 
   /**
-   * Resetea la contraseña del usuario.
+   * Resetea la contraseña del usuario. El hasheo se hace en el pool dedicado sin
+   * bloquear el hilo de la solicitud.
    *
    * @param request contiene el token de recuperación y la nueva contraseña.
-   * @return Respuesta con el resultado de la operación.
+   * @return un futuro con la respuesta con el resultado de la operación.
    */
-  MessageResponse resetPassword(ResetPasswordRequest request);
+  CompletableFuture<MessageResponse> resetPassword(ResetPasswordRequest request);
 }
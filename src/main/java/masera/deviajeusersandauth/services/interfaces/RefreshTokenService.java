@@ -1,15 +1,21 @@
 package masera.deviajeusersandauth.services.interfaces;
 
-import masera.deviajeusersandauth.entities.RefreshTokenEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-
 @Service
 public interface RefreshTokenService {
 
-  Optional<RefreshTokenEntity> findByToken(String token);
-  RefreshTokenEntity createRefreshToken(Integer userId);
-  RefreshTokenEntity verifyExpiration(RefreshTokenEntity token);
+  IssuedToken createRefreshToken(Integer userId);
+  IssuedToken rotateRefreshToken(String token);
   int deleteByUserId(Integer userId);
+
+  /**
+   * Token de refresco recién emitido. El valor solo se conoce en este momento:
+   * en el almacén se guarda únicamente su digest.
+   *
+   * @param token el valor del token que se entrega al cliente.
+   * @param userId el id del usuario al que pertenece.
+   */
+  record IssuedToken(String token, Integer userId) {
+  }
 }
@@ -0,0 +1,97 @@
+package masera.deviajeusersandauth.services.interfaces;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Almacén de tokens de refresco. Los tokens se identifican por el digest SHA-256
+ * de su valor y se agrupan en familias: cada inicio de sesión abre una familia y
+ * cada rotación agrega un token nuevo a la misma familia.
+ * La implementación se elige con la propiedad {@code deviaje.app.refreshToken.store}:
+ * {@code jpa} (por defecto) consulta la base de datos en cada operación y
+ * {@code memory} resuelve las lecturas en memoria y persiste en segundo plano.
+ */
+public interface RefreshTokenStore {
+
+  /**
+   * Busca un token de refresco por el digest de su valor.
+   *
+   * @param tokenHash el digest SHA-256 del token.
+   * @return el token, si existe.
+   */
+  Optional<StoredToken> findByHash(byte[] tokenHash);
+
+  /**
+   * Guarda un token nuevo.
+   *
+   * @param token el token a guardar.
+   */
+  void save(StoredToken token);
+
+  /**
+   * Marca un token como rotado, solo si todavía era el vigente de su familia.
+   *
+   * @param token el token a marcar.
+   * @param rotatedAt el momento de la rotación.
+   * @return true si se marcó, false si otra solicitud ya lo había rotado.
+   */
+  boolean markRotated(StoredToken token, Instant rotatedAt);
+
+  /**
+   * Elimina todos los tokens de una familia.
+   *
+   * @param familyId el id de la familia.
+   */
+  void revokeFamily(UUID familyId);
+
+  /**
+   * Elimina todos los tokens de un usuario.
+   *
+   * @param userId el id del usuario.
+   * @return la cantidad de tokens eliminados.
+   */
+  int deleteByUserId(Integer userId);
+
+  /**
+   * Descarta de la memoria los tokens expirados. La base de datos se limpia
+   * por separado, por lo que las implementaciones sin memoria no hacen nada.
+   *
+   * @return la cantidad de tokens descartados.
+   */
+  default int evictExpired() {
+    return 0;
+  }
+
+  /**
+   * Token de refresco almacenado.
+   *
+   * @param tokenHash el digest SHA-256 del token.
+   * @param userId el id del usuario al que pertenece.
+   * @param familyId la familia del token.
+   * @param expiryDate la fecha de expiración.
+   * @param rotatedAt el momento en que se rotó, o null si es el vigente.
+   */
+  record StoredToken(byte[] tokenHash, Integer userId, UUID familyId, Instant expiryDate,
+                     Instant rotatedAt) {
+
+    /**
+     * Indica si el token ha expirado.
+     *
+     * @return true si el token ha expirado.
+     */
+    public boolean isExpired() {
+      return expiryDate.isBefore(Instant.now());
+    }
+
+    /**
+     * Devuelve una copia del token marcada como rotada.
+     *
+     * @param at el momento de la rotación.
+     * @return el token rotado.
+     */
+    public StoredToken rotated(Instant at) {
+      return new StoredToken(tokenHash, userId, familyId, expiryDate, at);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package masera.deviajeusersandauth.services.interfaces;
 
 import java.util.List;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
 import masera.deviajeusersandauth.dtos.reviews.ReviewCreateRequest;
 import masera.deviajeusersandauth.dtos.reviews.ReviewDto;
 import masera.deviajeusersandauth.dtos.reviews.ReviewResponseCreateRequest;
@@ -25,19 +26,16 @@ public interface ReviewService {
   ReviewDto createReview(ReviewCreateRequest request, Integer userId);
 
   /**
-   * Obtiene todas las reviews ordenadas por fecha.
+   * Obtiene una página de reviews, de la más nueva a la más vieja, a partir de un cursor.
    *
-   * @return lista de reviews.
+   * @param cursor el cursor devuelto en la página anterior, o null para la primera.
+   * @param size cantidad de reviews por página, o null para usar la configurada.
+   * @param category categoría opcional para filtrar.
+   * @param responses cantidad máxima de respuestas por review, o null para incluirlas todas.
+   * @return la página de reviews y el cursor de la siguiente.
    */
-  List<ReviewDto> getAllReviews();
-
-  /**
-   * Obtiene reviews por categoría.
-   *
-   * @param category categoría de la review.
-   * @return lista de reviews de esa categoría.
-   */
-  List<ReviewDto> getReviewsByCategory(String category);
+  CursorPage<ReviewDto> getReviews(String cursor, Integer size, String category,
+                                   Integer responses);
 
   /**
    * Obtiene reviews de un usuario específico.
@@ -1,7 +1,11 @@
 package masera.deviajeusersandauth.services.interfaces;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
 import masera.deviajeusersandauth.dtos.get.UserDto;
+import masera.deviajeusersandauth.dtos.get.UserFilter;
 import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
 import masera.deviajeusersandauth.dtos.post.users.UserCreateRequest;
 import masera.deviajeusersandauth.dtos.put.UserPut;
@@ -32,6 +36,16 @@ public interface UserService {
    */
   MessageResponse registerUser(SignupRequest signupRequest);
 
+  /**
+   * Metodo para registrar un nuevo usuario hasheando la contraseña en el pool
+   * dedicado, liberando el hilo de la solicitud mientras tanto.
+   *
+   * @param signupRequest clase que contiene los datos del
+   *     nuevo usuario (username, email, password, etc.).
+   * @return un futuro con el {@link MessageResponse}.
+   */
+  CompletableFuture<MessageResponse> registerUserAsync(SignupRequest signupRequest);
+
   /**
    * Actualiza un usuario existente.
    *
@@ -58,11 +72,22 @@ public interface UserService {
   UserDto getUserByUsername(String username);
 
   /**
-   * Obtiene todos los usuarios registrados en la aplicación.
+   * Obtiene una página de usuarios ordenada por id, a partir de un cursor.
+   *
+   * @param cursor el id del último usuario de la página anterior, o null para la primera.
+   * @param size cantidad de usuarios por página, o null para usar la configurada.
+   * @param filter filtros opcionales.
+   * @return la página de usuarios y el cursor de la siguiente.
+   */
+  CursorPage<UserDto> getUsers(Integer cursor, Integer size, UserFilter filter);
+
+  /**
+   * Recorre todos los usuarios con un cursor de la base de datos y los entrega en bloques,
+   * sin mantener en memoria más que el bloque actual.
    *
-   * @return la lista de usuarios.
+   * @param chunkConsumer recibe cada bloque de usuarios, en orden de id.
    */
-  List<UserDto> getAllUsers();
+  void exportUsers(Consumer<List<UserDto>> chunkConsumer);
 
   /**
    * Obtiene una lista de usuarios por su rol.
@@ -0,0 +1,131 @@
+package masera.deviajeusersandauth.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import masera.deviajeusersandauth.security.crypto.PasswordHashingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest(properties = {
+  // Base propia: este contexto no debe recrear las tablas de los otros tests
+  "spring.datasource.url=jdbc:h2:mem:auth_controller;MODE=MySQL;DB_CLOSE_DELAY=-1",
+  "deviaje.app.hashing.threads=1",
+  "deviaje.app.hashing.queueCapacity=1",
+  "deviaje.app.hashing.continuationThreads=1",
+  "deviaje.app.hashing.continuationQueueCapacity=1"
+})
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+  private static final String LOGIN = "{\"username\": \"nadie\", \"password\": \"Password1\"}";
+
+  @Autowired
+  private WebApplicationContext context;
+
+  @Autowired
+  private PasswordHashingExecutor hashingExecutor;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    release.countDown();
+    for (String pool : new String[] {"password.hashing", "password.continuations"}) {
+      awaitGauge("executor.active", pool, 0);
+      awaitGauge("executor.queued", pool, 0);
+    }
+  }
+
+  @Test
+  void loginIsRejectedWith503WhenTheHashingPoolIsFull() throws Exception {
+    // Un hasheo en curso y otro en la cola. Se espera a que el primero empiece: si el
+    // hilo ya existe, la tarea pasa por la cola antes de tomarla
+    hashingExecutor.hashAsync(this::blockUntilReleased);
+    awaitGauge("executor.active", "password.hashing", 1);
+    hashingExecutor.hashAsync(this::blockUntilReleased);
+
+    mockMvc.perform(post("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(LOGIN))
+            .andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void loginFailsWith503InsteadOfHangingWhenTheContinuationPoolIsFull() throws Exception {
+    // Dos continuaciones bloqueadas: una en curso y otra en la cola. Los hasheos esperan
+    // a que se encadene cada etapa, así la etapa corre en el pool de continuaciones
+    CountDownLatch chained = new CountDownLatch(1);
+    for (int i = 0; i < 2; i++) {
+      hashingExecutor.hashAsync(() -> await(chained))
+              .thenAccept(value -> blockUntilReleased());
+    }
+    chained.countDown();
+    awaitGauge("executor.active", "password.continuations", 1);
+    awaitGauge("executor.queued", "password.continuations", 1);
+    double rejected = rejectedContinuations();
+
+    MvcResult result = mockMvc.perform(post("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(LOGIN))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isServiceUnavailable());
+    assertEquals(rejected + 1, rejectedContinuations());
+  }
+
+  private double rejectedContinuations() {
+    return meterRegistry.get("deviaje.password.hashing.rejected")
+            .tag("pool", "continuations").counter().count();
+  }
+
+  private Integer blockUntilReleased() {
+    return await(release);
+  }
+
+  private static Integer await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return 0;
+  }
+
+  private void awaitGauge(String name, String pool, double expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (meterRegistry.get(name).tag("name", pool).gauge().value() != expected
+            && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, meterRegistry.get(name).tag("name", pool).gauge().value());
+  }
+}
@@ -0,0 +1,127 @@
+package masera.deviajeusersandauth.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
+import masera.deviajeusersandauth.dtos.reviews.ReviewCreateRequest;
+import masera.deviajeusersandauth.services.impl.ReviewStatsCache;
+import masera.deviajeusersandauth.services.interfaces.ReviewService;
+import masera.deviajeusersandauth.services.interfaces.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReviewControllerTest {
+
+  @Autowired
+  private WebApplicationContext context;
+
+  @Autowired
+  private ReviewService reviewService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ReviewStatsCache reviewStatsCache;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    Integer roles = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM roles WHERE description = 'CLIENTE'", Integer.class);
+    if (roles == 0) {
+      jdbcTemplate.update("INSERT INTO roles (description) VALUES ('CLIENTE')");
+    }
+  }
+
+  @Test
+  void unknownCategoryIsABadRequest() throws Exception {
+    mockMvc.perform(get("/api/reviews").param("category", "unknown"))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void statsAreNotModifiedAfterTheCacheExpiresIfTheContentIsTheSame() throws Exception {
+    String etag = mockMvc.perform(get("/api/reviews/stats"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    // Vence la copia guardada sin cambiar las reviews, como al pasar el TTL
+    reviewStatsCache.invalidate();
+    MockHttpServletResponse notModified = mockMvc.perform(get("/api/reviews/stats")
+                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andReturn().getResponse();
+    assertEquals(List.of(etag), notModified.getHeaders(HttpHeaders.ETAG));
+  }
+
+  @Test
+  void statsAreRevalidatedWithTheEtagUntilAReviewChanges() throws Exception {
+    MockHttpServletResponse first = mockMvc.perform(get("/api/reviews/stats"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse();
+    String etag = first.getHeader(HttpHeaders.ETAG);
+    assertTrue(etag.startsWith("\""));
+    String cacheControl = first.getHeader(HttpHeaders.CACHE_CONTROL);
+    assertTrue(cacheControl.contains("public"));
+    assertTrue(cacheControl.contains("s-maxage=60"));
+
+    // Con el ETag vigente se responde 304 sin consultar la base
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    MockHttpServletResponse notModified = mockMvc.perform(get("/api/reviews/stats")
+                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andReturn().getResponse();
+    assertEquals(0, statistics.getPrepareStatementCount());
+    assertEquals(List.of(etag), notModified.getHeaders(HttpHeaders.ETAG));
+    assertEquals(cacheControl, notModified.getHeader(HttpHeaders.CACHE_CONTROL));
+
+    SignupRequest signup = new SignupRequest();
+    signup.setUsername("stats-etag");
+    signup.setEmail("stats-etag@deviaje.com");
+    signup.setPassword("Password1");
+    userService.registerUser(signup);
+    Integer userId = jdbcTemplate.queryForObject(
+            "SELECT id FROM users WHERE username = 'stats-etag'", Integer.class);
+    ReviewCreateRequest review = new ReviewCreateRequest();
+    review.setRating(3);
+    review.setComment("Cambia las estadísticas");
+    review.setCategory("searches");
+    reviewService.createReview(review, userId);
+
+    MockHttpServletResponse changed = mockMvc.perform(get("/api/reviews/stats")
+                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn().getResponse();
+    assertNotEquals(etag, changed.getHeader(HttpHeaders.ETAG));
+  }
+}
@@ -0,0 +1,60 @@
+package masera.deviajeusersandauth.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@SpringBootTest(properties = {
+  // Base propia: este contexto no debe recrear las tablas de los otros tests
+  "spring.datasource.url=jdbc:h2:mem:user_controller;MODE=MySQL;DB_CLOSE_DELAY=-1",
+  "deviaje.app.users.streamTimeoutSeconds=42"
+})
+@ActiveProfiles("test")
+class UserControllerTest {
+
+  @Autowired
+  private WebApplicationContext context;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  @WithMockUser(authorities = "ADMINISTRADOR")
+  void exportUsesTheConfiguredStreamTimeout() throws Exception {
+    assertStreamTimeout("/api/users/export");
+  }
+
+  @Test
+  @WithMockUser(authorities = "ADMINISTRADOR")
+  void listAllUsesTheConfiguredStreamTimeout() throws Exception {
+    assertStreamTimeout("/api/users/all");
+  }
+
+  private void assertStreamTimeout(String path) throws Exception {
+    MvcResult result = mockMvc.perform(get(path))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    assertEquals(42_000, result.getRequest().getAsyncContext().getTimeout());
+    mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+  }
+}
@@ -0,0 +1,142 @@
+package masera.deviajeusersandauth.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
+import masera.deviajeusersandauth.services.interfaces.EmailService;
+import masera.deviajeusersandauth.services.interfaces.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = {
+  // Base propia: este contexto no debe recrear las tablas de los otros tests
+  "spring.datasource.url=jdbc:h2:mem:email_outbox;MODE=MySQL;DB_CLOSE_DELAY=-1",
+  "deviaje.app.email.enabled=true",
+  "spring.mail.host=localhost",
+  "spring.mail.port=3025",
+  "spring.mail.username=soporte@deviaje.com",
+  "spring.mail.password=secret",
+  "spring.mail.properties.mail.smtp.starttls.enable=false",
+  "deviaje.app.email.outbox.intervalMs=3600000",
+  "deviaje.app.email.outbox.maxAttempts=2"
+})
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTest {
+
+  @RegisterExtension
+  static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP)
+          .withConfiguration(GreenMailConfiguration.aConfig()
+                  .withUser("soporte@deviaje.com", "secret"));
+
+  @Autowired
+  private EmailOutboxDispatcher dispatcher;
+
+  @Autowired
+  private EmailOutboxPurgeJob purgeJob;
+
+  @Autowired
+  private EmailService emailService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    Integer roles = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM roles WHERE description = 'CLIENTE'", Integer.class);
+    if (roles == 0) {
+      jdbcTemplate.update("INSERT INTO roles (description) VALUES ('CLIENTE')");
+    }
+  }
+
+  @Test
+  void registrationEmailIsQueuedWithTheUserAndSentByTheDispatcher() throws Exception {
+    SignupRequest signup = new SignupRequest();
+    signup.setUsername("outbox-user");
+    signup.setEmail("outbox-user@deviaje.com");
+    signup.setPassword("Password1");
+    userService.registerUser(signup);
+
+    assertEquals("PENDING", status("outbox-user@deviaje.com"));
+
+    dispatcher.dispatch();
+
+    MimeMessage[] received = smtp.getReceivedMessages();
+    assertEquals(1, received.length);
+    assertEquals("Bienvenido a DeViaje - Registro Exitoso", received[0].getSubject());
+    Map<String, Object> row = row("outbox-user@deviaje.com");
+    assertEquals("SENT", row.get("status"));
+    assertNull(row.get("body"));
+  }
+
+  @Test
+  void failedSendIsRetriedLaterAndDeadLetteredAfterMaxAttempts() throws Exception {
+    emailService.sendEmail("offline@deviaje.com", "Prueba", "<p>Hola</p>");
+    smtp.stop();
+
+    dispatcher.dispatch();
+
+    Map<String, Object> row = row("offline@deviaje.com");
+    assertEquals("PENDING", row.get("status"));
+    assertEquals(1, row.get("attempts"));
+    assertNotNull(row.get("body"));
+    assertTrue(jdbcTemplate.queryForObject("SELECT next_attempt_at > ? FROM email_outbox "
+            + "WHERE recipient = ?", Boolean.class, Timestamp.from(Instant.now()),
+            "offline@deviaje.com"));
+
+    // Se adelanta el reintento para no esperar la espera exponencial
+    jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = ? WHERE recipient = ?",
+            Timestamp.from(Instant.now().minusSeconds(1)), "offline@deviaje.com");
+    dispatcher.dispatch();
+
+    row = row("offline@deviaje.com");
+    assertEquals("DEAD", row.get("status"));
+    assertEquals(2, row.get("attempts"));
+    assertNull(row.get("body"));
+  }
+
+  @Test
+  void finishedEmailsAreDeletedAfterTheRetention() throws Exception {
+    emailService.sendEmail("old@deviaje.com", "Prueba", "<p>Hola</p>");
+    emailService.sendEmail("recent@deviaje.com", "Prueba", "<p>Hola</p>");
+    dispatcher.dispatch();
+    jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = ? WHERE recipient = ?",
+            Timestamp.from(Instant.now().minus(Duration.ofDays(31))), "old@deviaje.com");
+
+    assertEquals(1, purgeJob.purge());
+
+    assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM email_outbox WHERE recipient = ?", Integer.class,
+            "old@deviaje.com"));
+    assertEquals("SENT", status("recent@deviaje.com"));
+  }
+
+  private String status(String recipient) {
+    return (String) row(recipient).get("status");
+  }
+
+  private Map<String, Object> row(String recipient) {
+    return jdbcTemplate.queryForMap(
+            "SELECT status, attempts, next_attempt_at, body FROM email_outbox WHERE recipient = ?",
+            recipient);
+  }
+}
@@ -0,0 +1,124 @@
+package masera.deviajeusersandauth.mappers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import masera.deviajeusersandauth.dtos.get.PassportDto;
+import masera.deviajeusersandauth.dtos.post.users.PassportRequest;
+import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
+import masera.deviajeusersandauth.entities.PassportEntity;
+import masera.deviajeusersandauth.entities.UserEntity;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compara los mappers generados por MapStruct con el {@link ModelMapper} por defecto.
+ * Se ejecuta con el metodo main, después de {@code mvn test-compile}, usando el
+ * classpath de test (no forma parte de la suite de tests).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+  private ModelMapper modelMapper;
+
+  private UserMapper userMapper;
+
+  private PassportMapper passportMapper;
+
+  private SignupRequest signupRequest;
+
+  private PassportRequest passportRequest;
+
+  private PassportEntity passportEntity;
+
+  /**
+   * Prepara los mappers y los objetos de entrada.
+   */
+  @Setup
+  public void setUp() {
+    modelMapper = new ModelMapper();
+    userMapper = new UserMapperImpl();
+    passportMapper = new PassportMapperImpl();
+
+    passportRequest = new PassportRequest("AAB123456", LocalDate.of(2030, 5, 1), "AR", "AR");
+
+    signupRequest = new SignupRequest();
+    signupRequest.setUsername("benchmark");
+    signupRequest.setEmail("benchmark@deviaje.com");
+    signupRequest.setPassword("Password1");
+    signupRequest.setFirstName("Juan");
+    signupRequest.setLastName("Perez");
+    signupRequest.setGender("MALE");
+    signupRequest.setPhone("3515555555");
+    signupRequest.setBirthDate(LocalDate.of(1990, 1, 1));
+    signupRequest.setPassport(passportRequest);
+
+    passportEntity = PassportEntity.builder()
+            .id(1)
+            .passportNumber("AAB123456")
+            .expiryDate(LocalDate.of(2030, 5, 1))
+            .issuanceCountry("AR")
+            .nationality("AR")
+            .createdDatetime(LocalDateTime.now())
+            .build();
+  }
+
+  @Benchmark
+  public UserEntity signupModelMapper() {
+    return modelMapper.map(signupRequest, UserEntity.class);
+  }
+
+  @Benchmark
+  public UserEntity signupMapStruct() {
+    return userMapper.toEntity(signupRequest);
+  }
+
+  @Benchmark
+  public PassportEntity passportRequestModelMapper() {
+    return modelMapper.map(passportRequest, PassportEntity.class);
+  }
+
+  @Benchmark
+  public PassportEntity passportRequestMapStruct() {
+    return passportMapper.toEntity(passportRequest);
+  }
+
+  @Benchmark
+  public PassportDto passportDtoModelMapper() {
+    return modelMapper.map(passportEntity, PassportDto.class);
+  }
+
+  @Benchmark
+  public PassportDto passportDtoMapStruct() {
+    return passportMapper.toDto(passportEntity);
+  }
+
+  /**
+   * Ejecuta el benchmark.
+   *
+   * @param args sin uso.
+   * @throws RunnerException si falla la ejecución.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(MapperBenchmark.class.getSimpleName())
+            .build()).run();
+  }
+}
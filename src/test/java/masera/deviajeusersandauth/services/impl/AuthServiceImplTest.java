@@ -0,0 +1,118 @@
+package masera.deviajeusersandauth.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import masera.deviajeusersandauth.dtos.post.LoginRequest;
+import masera.deviajeusersandauth.dtos.post.RefreshTokenRequest;
+import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
+import masera.deviajeusersandauth.dtos.responses.JwtResponse;
+import masera.deviajeusersandauth.events.UserChangedEvent;
+import masera.deviajeusersandauth.exceptions.TokenRefreshConflictException;
+import masera.deviajeusersandauth.exceptions.TokenRefreshException;
+import masera.deviajeusersandauth.services.interfaces.AuthService;
+import masera.deviajeusersandauth.services.interfaces.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceImplTest {
+
+  @Autowired
+  private AuthService authService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @BeforeEach
+  void setUp() {
+    Integer roles = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM roles WHERE description = 'CLIENTE'", Integer.class);
+    if (roles == 0) {
+      jdbcTemplate.update("INSERT INTO roles (description) VALUES ('CLIENTE')");
+    }
+  }
+
+  @Test
+  void loginReadsUserOnceAndStoresHashedRefreshToken() {
+    SignupRequest signup = new SignupRequest();
+    signup.setUsername("login-budget");
+    signup.setEmail("login-budget@deviaje.com");
+    signup.setPassword("Password1");
+    userService.registerUser(signup);
+
+    LoginRequest login = new LoginRequest("login-budget", "Password1");
+    JwtResponse first = authService.authenticateUser(login);
+
+    // Se quita el usuario del cache para que el login lo lea de la base de datos
+    eventPublisher.publishEvent(new UserChangedEvent(first.getId()));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    JwtResponse second = authService.authenticateUser(login);
+
+    // Una lectura del usuario con sus roles y la inserción del token de refresco
+    assertEquals(2, statistics.getPrepareStatementCount());
+    assertFalse(second.getIsTemporaryPassword());
+    // Cada login abre su propia familia y solo se guarda el digest del token
+    assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM refresh_tokens WHERE user_id = ?", Integer.class, first.getId()));
+    assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM refresh_tokens WHERE token_hash = ?", Integer.class,
+            RefreshTokenServiceImpl.hash(second.getRefreshToken())));
+  }
+
+  @Test
+  void refreshRotatesTokenAndRevokesFamilyOnReuse() {
+    SignupRequest signup = new SignupRequest();
+    signup.setUsername("refresh-rotation");
+    signup.setEmail("refresh-rotation@deviaje.com");
+    signup.setPassword("Password1");
+    userService.registerUser(signup);
+
+    JwtResponse login = authService.authenticateUser(
+            new LoginRequest("refresh-rotation", "Password1"));
+    JwtResponse refreshed = authService.refreshToken(
+            new RefreshTokenRequest(login.getRefreshToken()));
+    assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+
+    // Dentro del margen de gracia el token rotado no se vuelve a canjear
+    assertThrows(TokenRefreshConflictException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(login.getRefreshToken())));
+
+    // Se simula que el token rotado se reutiliza después del margen de gracia
+    jdbcTemplate.update("UPDATE refresh_tokens SET rotated_at = ? WHERE token_hash = ?",
+            Timestamp.from(Instant.now().minusSeconds(60)),
+            RefreshTokenServiceImpl.hash(login.getRefreshToken()));
+
+    assertThrows(TokenRefreshException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(login.getRefreshToken())));
+    assertThrows(TokenRefreshException.class,
+            () -> authService.refreshToken(new RefreshTokenRequest(refreshed.getRefreshToken())));
+    assertTrue(jdbcTemplate.queryForList("SELECT id FROM refresh_tokens WHERE user_id = ?",
+            login.getId()).isEmpty());
+  }
+}
@@ -0,0 +1,142 @@
+package masera.deviajeusersandauth.services.impl;
+
+import java.time.Year;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import masera.deviajeusersandauth.services.impl.EmailTemplates.Template;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compara el renderizado de las plantillas compiladas con la concatenación de
+ * cadenas que se usaba antes para el correo de registro.
+ * Se ejecuta con el metodo main, después de {@code mvn test-compile}, usando el
+ * classpath de test (no forma parte de la suite de tests).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+  private EmailTemplates emailTemplates;
+
+  private String firstName;
+
+  private String username;
+
+  private String email;
+
+  private String frontendUrl;
+
+  private Map<String, Object> values;
+
+  /**
+   * Compila las plantillas y prepara los valores.
+   */
+  @Setup
+  public void setUp() {
+    emailTemplates = new EmailTemplates();
+    firstName = "Juan";
+    username = "jperez";
+    email = "jperez@deviaje.com";
+    frontendUrl = "https://deviaje.com";
+    values = Map.of(
+            "name", firstName,
+            "username", username,
+            "email", email,
+            "loginUrl", frontendUrl + "/user/login",
+            "year", Year.now().getValue());
+  }
+
+  @Benchmark
+  public String registrationTemplate() {
+    return emailTemplates.render(Template.REGISTRATION, Map.of(
+            "name", firstName,
+            "username", username,
+            "email", email,
+            "loginUrl", frontendUrl + "/user/login",
+            "year", Year.now().getValue()));
+  }
+
+  /**
+   * Solo el renderizado, sin armar el mapa de valores.
+   */
+  @Benchmark
+  public String registrationTemplateRenderOnly() {
+    return emailTemplates.render(Template.REGISTRATION, values);
+  }
+
+  @Benchmark
+  public String registrationConcatenation() {
+    return "<html>"
+            + "<head>"
+            + "<style>"
+            + "body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }"
+            + ".container { max-width: 600px; margin: 0 auto; }"
+            + ".header { background-color: #8B5CF6; padding: 20px; text-align: center; }"
+            + ".header h1 { color: white; margin: 0; }"
+            + ".content { padding: 20px; border: 1px solid #ddd; border-top: none; }"
+            + ".button { display: inline-block; background-color: #8B5CF6; "
+            + "color: white; padding: 10px 20px; "
+            + "text-decoration: none; border-radius: 5px; margin-top: 20px; }"
+            + ".footer { margin-top: 30px; font-size: 12px; color: #666; "
+            + "text-align: center; }"
+            + "</style>"
+            + "</head>"
+            + "<body>"
+            + "<div class='container'>"
+            + "<div class='header'>"
+            + "<h1>DeViaje</h1>"
+            + "</div>"
+            + "<div class='content'>"
+            + "<h2>¡Bienvenido/a " + firstName + "!</h2>"
+            + "<p>Tu cuenta ha sido creada exitosamente en DeViaje.</p>"
+            + "<p>Ahora puedes acceder a nuestra plataforma con los siguientes datos:</p>"
+            + "<p><strong>Usuario:</strong> " + username + "<br>"
+            + "<strong>Email:</strong> " + email + "</p>"
+            + "<p>Ya puedes comenzar a explorar nuestras opciones de viaje y "
+            + "realizar reservas de vuelos, hoteles y paquetes turísticos.</p>"
+            + "<div style='text-align: center;'>"
+            + "<a href='" + frontendUrl + "/user/login"
+            + "' class='button'>Iniciar Sesión</a>"
+            + "</div>"
+            + "<p>Si tienes alguna pregunta o necesitas asistencia, "
+            + "no dudes en contactar a nuestro equipo de soporte.</p>"
+            + "<p>¡Gracias por elegirnos para tus próximas aventuras!</p>"
+            + "<div class='footer'>"
+            + "<p>Este es un correo automático, por favor no responder.<br>"
+            + "© " + Year.now().getValue()
+            + " DeViaje. Todos los derechos reservados.</p>"
+            + "</div>"
+            + "</div>"
+            + "</div>"
+            + "</body>"
+            + "</html>";
+  }
+
+  /**
+   * Ejecuta el benchmark.
+   *
+   * @param args sin uso.
+   * @throws RunnerException si falla la ejecución.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(EmailTemplateBenchmark.class.getSimpleName())
+            .build()).run();
+  }
+}
@@ -0,0 +1,169 @@
+package masera.deviajeusersandauth.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
+import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
+import masera.deviajeusersandauth.dtos.reviews.ReviewCreateRequest;
+import masera.deviajeusersandauth.dtos.reviews.ReviewDto;
+import masera.deviajeusersandauth.dtos.reviews.ReviewResponseCreateRequest;
+import masera.deviajeusersandauth.dtos.reviews.ReviewResponseDto;
+import masera.deviajeusersandauth.dtos.reviews.ReviewStatsDto;
+import masera.deviajeusersandauth.jobs.ReviewStatsReconcileJob;
+import masera.deviajeusersandauth.services.interfaces.ReviewService;
+import masera.deviajeusersandauth.services.interfaces.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReviewServiceImplTest {
+
+  private static final int REVIEWS = 12;
+
+  @Autowired
+  private ReviewService reviewService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ReviewStatsReconcileJob reviewStatsReconcileJob;
+
+  @BeforeEach
+  void setUp() {
+    Integer roles = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM roles WHERE description = 'CLIENTE'", Integer.class);
+    if (roles == 0) {
+      jdbcTemplate.update("INSERT INTO roles (description) VALUES ('CLIENTE')");
+    }
+    Integer reviews = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM reviews r JOIN users u ON u.id = r.user_id "
+                    + "WHERE u.username LIKE 'reviewer-%'", Integer.class);
+    for (int i = reviews; i < REVIEWS; i++) {
+      SignupRequest signup = new SignupRequest();
+      signup.setUsername("reviewer-" + i);
+      signup.setEmail("reviewer-" + i + "@deviaje.com");
+      signup.setPassword("Password1");
+      userService.registerUser(signup);
+      Integer userId = jdbcTemplate.queryForObject(
+              "SELECT id FROM users WHERE username = ?", Integer.class, "reviewer-" + i);
+
+      ReviewCreateRequest review = new ReviewCreateRequest();
+      review.setRating(1 + i % 5);
+      review.setComment("Review " + i);
+      review.setCategory(i % 2 == 0 ? "general" : "usability");
+      Long reviewId = reviewService.createReview(review, userId).getId();
+
+      // Cada review tiene respuestas de autores distintos
+      for (int j = 0; j <= i % 3; j++) {
+        ReviewResponseCreateRequest response = new ReviewResponseCreateRequest();
+        response.setComment("Respuesta " + j);
+        String author = "reviewer-" + (i - j < 0 ? i : i - j);
+        reviewService.createReviewResponse(reviewId, response, author);
+      }
+    }
+  }
+
+  @Test
+  void feedUsesSameQueryCountForAnyPageSize() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    for (int size : new int[] {1, 5, REVIEWS}) {
+      statistics.clear();
+      CursorPage<ReviewDto> page = reviewService.getReviews(null, size, null, null);
+
+      // La página de reviews con sus autores y las respuestas de todas ellas
+      assertEquals(size, page.getItems().size());
+      assertEquals(2, statistics.getPrepareStatementCount());
+
+      statistics.clear();
+      reviewService.getReviews(null, size, null, 1);
+
+      // Con límite de respuestas se suma el conteo total por review
+      assertEquals(3, statistics.getPrepareStatementCount());
+    }
+  }
+
+  @Test
+  void createdReviewsAndResponsesMapTheirLazyAuthors() {
+    Integer userId = jdbcTemplate.queryForObject(
+            "SELECT id FROM users WHERE username = 'reviewer-0'", Integer.class);
+    ReviewCreateRequest request = new ReviewCreateRequest();
+    request.setRating(4);
+    request.setComment("Con autor");
+    request.setCategory("booking_process");
+
+    // Las asociaciones son LAZY: el mapeo ocurre dentro de la transacción del servicio
+    ReviewDto review = reviewService.createReview(request, userId);
+    ReviewResponseCreateRequest responseRequest = new ReviewResponseCreateRequest();
+    responseRequest.setComment("Respuesta con autor");
+    ReviewResponseDto response =
+            reviewService.createReviewResponse(review.getId(), responseRequest, "reviewer-1");
+
+    assertEquals("reviewer-0", review.getUsername());
+    assertEquals(0, review.getResponsesCount());
+    assertEquals(review.getId(), response.getReviewId());
+    assertEquals("reviewer-1", response.getUsername());
+    reviewService.deleteReview(review.getId());
+  }
+
+  @Test
+  void statsAreReadFromCountersKeptByCreateDeleteAndReconcile() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    // Otros tests cargan reviews directamente en la base
+    reviewStatsReconcileJob.reconcile();
+    long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reviews", Long.class);
+
+    statistics.clear();
+    ReviewStatsDto stats = reviewService.getReviewStats();
+
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(total, stats.getTotalReviews());
+    assertEquals(jdbcTemplate.queryForObject("SELECT AVG(rating * 1.0) FROM reviews "
+            + "WHERE category = 'GENERAL'", Double.class),
+            stats.getAverageRatingByCategory().get("GENERAL"), 1e-9);
+
+    Integer userId = jdbcTemplate.queryForObject(
+            "SELECT id FROM users WHERE username = 'reviewer-0'", Integer.class);
+    ReviewCreateRequest review = new ReviewCreateRequest();
+    review.setRating(5);
+    review.setComment("Temporal");
+    review.setCategory("performance");
+    Long reviewId = reviewService.createReview(review, userId).getId();
+
+    ReviewStatsDto created = reviewService.getReviewStats();
+    assertEquals(total + 1, created.getTotalReviews());
+    assertEquals(stats.getRatingDistribution().get(5) + 1, created.getRatingDistribution().get(5));
+    assertEquals(5.0, created.getAverageRatingByCategory().get("PERFORMANCE"));
+
+    reviewService.deleteReview(reviewId);
+    assertEquals(stats, reviewService.getReviewStats());
+
+    jdbcTemplate.update("UPDATE review_stats SET review_count = review_count + 7 "
+            + "WHERE category = 'GENERAL' AND rating = 1");
+    assertEquals(1, reviewStatsReconcileJob.reconcile());
+    assertEquals(stats, reviewService.getReviewStats());
+
+    // Sin contadores se agrupan las reviews en una sola consulta
+    jdbcTemplate.update("DELETE FROM review_stats");
+    statistics.clear();
+    assertEquals(stats, reviewService.getReviewStats());
+    assertEquals(2, statistics.getPrepareStatementCount());
+    reviewStatsReconcileJob.reconcile();
+  }
+}
@@ -0,0 +1,182 @@
+package masera.deviajeusersandauth.services.impl;
+
+import jakarta.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import masera.deviajeusersandauth.DeviajeUsersAndAuthApplication;
+import masera.deviajeusersandauth.dtos.reviews.ReviewStatsDto;
+import masera.deviajeusersandauth.entities.ReviewEntity;
+import masera.deviajeusersandauth.entities.ReviewEntity.ReviewCategory;
+import masera.deviajeusersandauth.jobs.ReviewStatsReconcileJob;
+import masera.deviajeusersandauth.repositories.ReviewRepository;
+import masera.deviajeusersandauth.services.interfaces.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compara las formas de calcular las estadísticas de reviews sobre una base H2 en
+ * memoria con 10 mil, 100 mil y 1 millón de reviews: la anterior (un COUNT, un AVG
+ * general, un AVG por categoría y la carga de todas las reviews para la distribución),
+ * la consulta agrupada por categoría y rating, y los contadores de review_stats.
+ * Se ejecuta con el metodo main, después de {@code mvn test-compile}, usando el
+ * classpath de test (no forma parte de la suite de tests).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ReviewStatsBenchmark {
+
+  private static final int INSERT_BATCH = 10_000;
+
+  @Param({"10000", "100000", "1000000"})
+  private int reviews;
+
+  private ConfigurableApplicationContext context;
+
+  private ReviewService reviewService;
+
+  private ReviewRepository reviewRepository;
+
+  private EntityManager entityManager;
+
+  private TransactionTemplate readOnly;
+
+  /**
+   * Levanta la aplicación sobre una base propia y carga las reviews.
+   */
+  @Setup
+  public void setUp() {
+    // H2 reutiliza el resultado de una consulta repetida si la tabla no cambió: se
+    // desactiva para medir la consulta y no la copia del resultado anterior
+    context = new SpringApplicationBuilder(DeviajeUsersAndAuthApplication.class)
+            .profiles("test")
+            .run("--spring.datasource.url=jdbc:h2:mem:review_stats_" + reviews
+                    + ";MODE=MySQL;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                    "--spring.jpa.properties.hibernate.generate_statistics=false",
+                    "--server.port=0",
+                    "--logging.level.root=WARN");
+    reviewService = context.getBean(ReviewService.class);
+    reviewRepository = context.getBean(ReviewRepository.class);
+    entityManager = context.getBean(EntityManager.class);
+    readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnly.setReadOnly(true);
+
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    jdbcTemplate.update("INSERT INTO users (username, email, password, active) "
+            + "VALUES ('benchmark', 'benchmark@deviaje.com', 'x', true)");
+    Integer userId = jdbcTemplate.queryForObject(
+            "SELECT id FROM users WHERE username = 'benchmark'", Integer.class);
+    ReviewCategory[] categories = ReviewCategory.values();
+    Timestamp created = Timestamp.valueOf(LocalDateTime.now());
+    List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+    for (int i = 0; i < reviews; i++) {
+      batch.add(new Object[] {userId, 1 + i % 5, "Review " + i,
+          categories[i % categories.length].name(), created});
+      if (batch.size() == INSERT_BATCH || i == reviews - 1) {
+        jdbcTemplate.batchUpdate("INSERT INTO reviews (user_id, rating, comment, category, "
+                + "created_datetime) VALUES (?, ?, ?, ?, ?)", batch);
+        batch.clear();
+      }
+    }
+    context.getBean(ReviewStatsReconcileJob.class).reconcile();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * El cálculo anterior: ocho consultas y todas las reviews cargadas como entidades.
+   */
+  @Benchmark
+  public ReviewStatsDto perCategoryQueriesAndFullLoad() {
+    return readOnly.execute(status -> {
+      Long totalReviews = entityManager.createQuery(
+              "SELECT COUNT(r) FROM ReviewEntity r", Long.class).getSingleResult();
+      Double averageRating = entityManager.createQuery(
+              "SELECT AVG(r.rating) FROM ReviewEntity r", Double.class).getSingleResult();
+
+      Map<String, Double> averageByCategory = new HashMap<>();
+      for (ReviewCategory category : ReviewCategory.values()) {
+        Double avg = entityManager.createQuery(
+                "SELECT AVG(r.rating) FROM ReviewEntity r WHERE r.category = :category",
+                Double.class).setParameter("category", category).getSingleResult();
+        averageByCategory.put(category.name(), avg != null ? avg : 0.0);
+      }
+
+      Map<Integer, Long> ratingDistribution = new HashMap<>();
+      List<ReviewEntity> allReviews = reviewRepository.findAll();
+      for (int i = 1; i <= 5; i++) {
+        final int rating = i;
+        ratingDistribution.put(rating, allReviews.stream()
+                .filter(r -> r.getRating() == rating)
+                .count());
+      }
+      // Se liberan las entidades para no acumularlas entre invocaciones
+      entityManager.clear();
+
+      return ReviewStatsDto.builder()
+              .totalReviews(totalReviews)
+              .averageRating(averageRating != null ? averageRating : 0.0)
+              .averageRatingByCategory(averageByCategory)
+              .ratingDistribution(ratingDistribution)
+              .build();
+    });
+  }
+
+  /**
+   * Una consulta agrupada por categoría y rating, recorrida en una pasada.
+   */
+  @Benchmark
+  public ReviewStatsDto groupedQuery() {
+    return readOnly.execute(status ->
+            ReviewServiceImpl.toStats(reviewRepository.countByCategoryAndRating()));
+  }
+
+  /**
+   * Los contadores de review_stats.
+   */
+  @Benchmark
+  public ReviewStatsDto counters() {
+    return reviewService.getReviewStats();
+  }
+
+  /**
+   * Ejecuta el benchmark.
+   *
+   * @param args sin uso.
+   * @throws RunnerException si falla la ejecución.
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+            .include(ReviewStatsBenchmark.class.getSimpleName())
+            .build()).run();
+  }
+}
@@ -0,0 +1,104 @@
+package masera.deviajeusersandauth.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+import masera.deviajeusersandauth.dtos.common.CursorPage;
+import masera.deviajeusersandauth.dtos.get.UserDto;
+import masera.deviajeusersandauth.dtos.post.users.PassportRequest;
+import masera.deviajeusersandauth.dtos.post.users.SignupRequest;
+import masera.deviajeusersandauth.exceptions.UsernameAlreadyExistsException;
+import masera.deviajeusersandauth.services.interfaces.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceImplTest {
+
+  private static final int USERS = 12;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @BeforeEach
+  void setUp() {
+    Integer roles = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM roles WHERE description = 'CLIENTE'", Integer.class);
+    if (roles == 0) {
+      jdbcTemplate.update("INSERT INTO roles (description) VALUES ('CLIENTE')");
+    }
+    Integer users = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username LIKE 'batch-%'", Integer.class);
+    for (int i = users; i < USERS; i++) {
+      SignupRequest signup = new SignupRequest();
+      signup.setUsername("batch-" + i);
+      signup.setEmail("batch-" + i + "@deviaje.com");
+      signup.setPassword("Password1");
+      if (i % 2 == 0) {
+        PassportRequest passport = new PassportRequest();
+        passport.setPassportNumber("P" + (1000000 + i));
+        passport.setExpiryDate(LocalDate.now().plusYears(5));
+        passport.setIssuanceCountry("AR");
+        passport.setNationality("AR");
+        signup.setPassport(passport);
+      }
+      userService.registerUser(signup);
+    }
+  }
+
+  @Test
+  void listingUsesSameQueryCountForAnyPageSize() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    for (int size : new int[] {1, 5, USERS}) {
+      statistics.clear();
+      CursorPage<UserDto> page = userService.getUsers(null, size, null);
+
+      // La página, los roles y los pasaportes de todos sus usuarios
+      assertEquals(size, page.getItems().size());
+      assertEquals(3, statistics.getPrepareStatementCount());
+    }
+  }
+
+  @Test
+  void signupWithTakenUsernameIsRejected() {
+    SignupRequest signup = new SignupRequest();
+    signup.setUsername("batch-0");
+    signup.setEmail("batch-0-other@deviaje.com");
+    signup.setPassword("Password1");
+
+    assertThrows(UsernameAlreadyExistsException.class, () -> userService.registerUser(signup));
+  }
+
+  @Test
+  void usersByRoleBringAllRolesAndPassports() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    List<UserDto> users = userService.getUsersByRole("CLIENTE");
+
+    assertEquals(3, statistics.getPrepareStatementCount());
+    assertTrue(users.size() >= USERS);
+    assertTrue(users.stream().allMatch(user -> user.getRoles().contains("CLIENTE")));
+    assertTrue(users.stream()
+            .filter(user -> user.getUsername().equals("batch-0"))
+            .allMatch(user -> user.getPassport() != null));
+  }
+}